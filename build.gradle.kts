@@ -2,6 +2,7 @@ plugins {
 	java
 	id("org.springframework.boot") version "3.5.0"
 	id("io.spring.dependency-management") version "1.1.7"
+	id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.devik"
@@ -23,15 +24,38 @@ repositories {
 	mavenCentral()
 }
 
+// End-to-end load driver: boots the app on an embedded PostgreSQL and replays a traffic mix
+val loadtest: SourceSet by sourceSets.creating {
+	compileClasspath += sourceSets.main.get().output
+	runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations["loadtestImplementation"].extendsFrom(configurations.implementation.get())
+configurations["loadtestRuntimeOnly"].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-data-jpa")
 	implementation("org.springframework.boot:spring-boot-starter-web")
 	implementation("org.springframework.boot:spring-boot-starter-security")
 	implementation("org.springframework.boot:spring-boot-starter-validation")
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
 	implementation("io.jsonwebtoken:jjwt-api:0.12.3")
 	implementation("io.jsonwebtoken:jjwt-impl:0.12.3")
 	implementation("io.jsonwebtoken:jjwt-jackson:0.12.3")
 
+	// Embedded full-text search
+	implementation("org.apache.lucene:lucene-core:9.12.1")
+	implementation("org.apache.lucene:lucene-analysis-common:9.12.1")
+	implementation("org.apache.lucene:lucene-queryparser:9.12.1")
+
+	// Metrics: Prometheus scrape format, Hibernate statistics and JFR-based virtual thread meters
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
+	runtimeOnly("org.hibernate.orm:hibernate-micrometer")
+	implementation("io.micrometer:micrometer-java21")
+
+	// Per-request SQL statement counting (StatementBudgetFilter)
+	implementation("net.ttddyy:datasource-proxy:1.10.1")
+
 	// OpenAPI/Swagger dependencies
 	implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.3.0")
 
@@ -40,8 +64,86 @@ dependencies {
 	annotationProcessor("org.projectlombok:lombok")
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+	"loadtestImplementation"("io.zonky.test:embedded-postgres:2.1.0")
+	"loadtestImplementation"("org.hdrhistogram:HdrHistogram:2.2.2")
 }
 
 tasks.withType<Test> {
 	useJUnitPlatform()
+	// Opt-in benchmarks, e.g. ./gradlew test -Dsage.benchmarks=true
+	System.getProperty("sage.benchmarks")?.let { systemProperty("sage.benchmarks", it) }
+	// Report virtual threads blocking while pinned, e.g. -Djdk.tracePinnedThreads=short
+	System.getProperty("jdk.tracePinnedThreads")?.let { systemProperty("jdk.tracePinnedThreads", it) }
+}
+
+tasks.named<org.springframework.boot.gradle.tasks.run.BootRun>("bootRun") {
+	System.getProperty("jdk.tracePinnedThreads")?.let { systemProperty("jdk.tracePinnedThreads", it) }
+}
+
+// ./gradlew loadTest --args="--clients=64 --duration=60"; options in LoadTestConfig
+tasks.register<JavaExec>("loadTest") {
+	description = "Runs the end-to-end load test against an embedded PostgreSQL."
+	group = "verification"
+	classpath = loadtest.runtimeClasspath
+	mainClass = "com.devik.sage.loadtest.LoadTest"
+	workingDir = projectDir
+}
+
+// Platform vs virtual threads at matched pool sizes, one forked run each, summarized in
+// build/loadtest/comparison/comparison.md. Pool sizes and shared arguments are overridable:
+// ./gradlew loadTestComparison -PcomparisonPoolSizes=20,50,100 -PcomparisonArgs="--rate=400 --duration=300"
+val comparisonPoolSizes = ((findProperty("comparisonPoolSizes") as String?) ?: "20,50").split(",").map { it.trim().toInt() }
+val comparisonArgs = ((findProperty("comparisonArgs") as String?) ?: "--rate=400").split(" ").filter { it.isNotBlank() }
+val comparisonDir = layout.buildDirectory.dir("loadtest/comparison")
+val comparisonRuns = comparisonPoolSizes.flatMap { poolSize ->
+	listOf("platform", "virtual").map { mode ->
+		tasks.register<JavaExec>("loadTest${mode.replaceFirstChar(Char::uppercase)}Pool$poolSize") {
+			description = "Load test run for the $mode thread comparison at pool size $poolSize."
+			group = "verification"
+			classpath = loadtest.runtimeClasspath
+			mainClass = "com.devik.sage.loadtest.LoadTest"
+			workingDir = projectDir
+			args = comparisonArgs + listOf("--pool-size=$poolSize", "--virtual-threads=${mode == "virtual"}",
+				"--out=${comparisonDir.get().dir("$mode-pool$poolSize").asFile}")
+		}
+	}
+}
+// Strictly one run at a time, so the runs never compete for CPU
+comparisonRuns.zipWithNext { earlier, later -> later.configure { mustRunAfter(earlier) } }
+
+tasks.register("loadTestComparison") {
+	description = "Runs the load test in both thread modes at each pool size and tabulates the totals."
+	group = "verification"
+	dependsOn(comparisonRuns)
+	doLast {
+		val dir = comparisonDir.get().asFile
+		val rows = comparisonPoolSizes.flatMap { poolSize ->
+			listOf("platform", "virtual").map { mode ->
+				val total = dir.resolve("$mode-pool$poolSize/summary.csv").readLines().last().split(",")
+				// operation,requests,errors,req_per_s,p50_ms,p90_ms,p99_ms,p999_ms,max_ms,err_p99_ms
+				"| $mode | $poolSize | ${total[3]} | ${total[4]} | ${total[6]} | ${total[7]} | ${total[8]} | ${total[2]} / ${total[1]} | ${total[9]} |"
+			}
+		}
+		val table = listOf(
+			"Arguments: `${comparisonArgs.joinToString(" ")}`",
+			"",
+			"| Mode | Pool | req/s | p50 ms | p99 ms | p99.9 ms | max ms | errors / requests | error p99 ms |",
+			"|------|-----:|------:|-------:|-------:|---------:|-------:|------------------:|-------------:|",
+		) + rows
+		dir.resolve("comparison.md").writeText(table.joinToString("\n", postfix = "\n"))
+		println(table.joinToString("\n"))
+	}
+}
+
+// Microbenchmarks for hot paths: ./gradlew jmh, results in build/results/jmh/results.json.
+// Narrow the run with e.g. -PjmhIncludes=JwtUtilBenchmark
+jmh {
+	jmhVersion = "1.37"
+	resultFormat = "JSON"
+	resultsFile = layout.buildDirectory.file("results/jmh/results.json")
+	fork = 1
+	warmupIterations = 3
+	iterations = 5
+	(findProperty("jmhIncludes") as String?)?.let { includes = listOf(it) }
 }
@@ -0,0 +1,79 @@
+package com.devik.sage;
+
+import com.devik.sage.model.Answer;
+import com.devik.sage.model.Question;
+import com.devik.sage.model.Tag;
+import com.devik.sage.model.User;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+/** Detached entities and application settings shared by the benchmarks. */
+public final class BenchmarkFixtures {
+
+    private static final String BODY = "How do I keep a paged answer list stable while new answers arrive? ".repeat(12);
+
+    private BenchmarkFixtures() {
+    }
+
+    /** A value from application.properties, so benchmarks run with the configured settings. */
+    public static String appProperty(String key) {
+        Properties properties = new Properties();
+        try (InputStream in = BenchmarkFixtures.class.getResourceAsStream("/application.properties")) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalStateException("Missing " + key + " in application.properties");
+        }
+        return value;
+    }
+
+    public static User user(long id) {
+        return User.builder()
+                .id(id)
+                .username("user" + id)
+                .email("user" + id + "@example.com")
+                .password("password")
+                .reputation(100)
+                .viewsCount(0)
+                .build();
+    }
+
+    public static Question question(long id, User author, int tagCount) {
+        Question question = new Question();
+        question.setId(id);
+        question.setTitle("Keyset pagination with concurrent inserts #" + id);
+        question.setBody(BODY);
+        question.setUser(author);
+        question.setCreatedAt(LocalDateTime.now().minusDays(1));
+        question.setUpdatedAt(LocalDateTime.now());
+        Set<Tag> tags = new HashSet<>();
+        for (int i = 0; i < tagCount; i++) {
+            Tag tag = new Tag();
+            tag.setId((long) i);
+            tag.setName("tag-" + i);
+            tags.add(tag);
+        }
+        question.setTags(tags);
+        return question;
+    }
+
+    public static Answer answer(long id, Question question, User author) {
+        Answer answer = new Answer();
+        answer.setId(id);
+        answer.setBody(BODY);
+        answer.setQuestion(question);
+        answer.setUser(author);
+        answer.setCreatedAt(LocalDateTime.now().minusHours(1));
+        answer.setUpdatedAt(LocalDateTime.now());
+        return answer;
+    }
+}
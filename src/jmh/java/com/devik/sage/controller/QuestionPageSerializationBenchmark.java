@@ -0,0 +1,66 @@
+package com.devik.sage.controller;
+
+import com.devik.sage.BenchmarkFixtures;
+import com.devik.sage.dto.AnswerResponse;
+import com.devik.sage.dto.PageResponse;
+import com.devik.sage.dto.QuestionWithAnswersResponse;
+import com.devik.sage.model.Question;
+import com.devik.sage.security.AuthenticatedUser;
+import com.devik.sage.service.ViewCountBuffer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Jackson serialization of the question page body, configured like Spring Boot's ObjectMapper. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QuestionPageSerializationBenchmark {
+
+    @Param({"10", "50"})
+    public int answers;
+
+    private ObjectWriter writer;
+    private QuestionWithAnswersResponse response;
+
+    @Setup
+    public void setUp() {
+        writer = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build()
+                .writerFor(QuestionWithAnswersResponse.class);
+
+        QuestionController questionController = new QuestionController(null, null, new ViewCountBuffer(null), null, null);
+        AnswerController answerController = new AnswerController(null, null, null, null, null);
+        AuthenticatedUser viewer = new AuthenticatedUser(2L, "user2");
+        Question question = BenchmarkFixtures.question(1, BenchmarkFixtures.user(1), 3);
+
+        List<AnswerResponse> content = new ArrayList<>(answers);
+        for (int i = 0; i < answers; i++) {
+            content.add(answerController.convertToResponse(
+                    BenchmarkFixtures.answer(i, question, BenchmarkFixtures.user(i + 2)), viewer));
+        }
+        PageResponse<AnswerResponse> page = new PageResponse<>();
+        page.setContent(content);
+        page.setSize(answers);
+        page.setTotalElements(answers);
+        page.setTotalPages(1);
+        page.setFirst(true);
+        page.setLast(true);
+
+        response = new QuestionWithAnswersResponse();
+        response.setQuestion(questionController.convertToResponse(question));
+        response.setAnswers(page);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(response);
+    }
+}
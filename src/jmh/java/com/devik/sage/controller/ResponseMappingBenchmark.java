@@ -0,0 +1,68 @@
+package com.devik.sage.controller;
+
+import com.devik.sage.BenchmarkFixtures;
+import com.devik.sage.dto.AnswerResponse;
+import com.devik.sage.dto.PageResponse;
+import com.devik.sage.dto.QuestionResponse;
+import com.devik.sage.model.Answer;
+import com.devik.sage.model.Question;
+import com.devik.sage.model.User;
+import com.devik.sage.security.AuthenticatedUser;
+import com.devik.sage.service.ViewCountBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Entity to response mapping done for every question and answer the API returns. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResponseMappingBenchmark {
+
+    @Param({"10", "50"})
+    public int pageSize;
+
+    private QuestionController questionController;
+    private AnswerController answerController;
+    private Question question;
+    private Answer answer;
+    private AuthenticatedUser viewer;
+    private PageImpl<Question> questionPage;
+
+    @Setup
+    public void setUp() {
+        // Mapping only touches the view count buffer; nothing else is called
+        questionController = new QuestionController(null, null, new ViewCountBuffer(null), null, null);
+        answerController = new AnswerController(null, null, null, null, null);
+
+        User author = BenchmarkFixtures.user(1);
+        question = BenchmarkFixtures.question(1, author, 3);
+        answer = BenchmarkFixtures.answer(1, question, BenchmarkFixtures.user(2));
+        viewer = new AuthenticatedUser(2L, "user2");
+
+        List<Question> questions = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            questions.add(BenchmarkFixtures.question(i, BenchmarkFixtures.user(i), 3));
+        }
+        questionPage = new PageImpl<>(questions, PageRequest.of(0, pageSize), 10_000);
+    }
+
+    @Benchmark
+    public QuestionResponse questionConvertToResponse() {
+        return questionController.convertToResponse(question);
+    }
+
+    @Benchmark
+    public AnswerResponse answerConvertToResponse() {
+        return answerController.convertToResponse(answer, viewer);
+    }
+
+    @Benchmark
+    public PageResponse<QuestionResponse> questionPageResponse() {
+        return questionController.convertToPageResponse(questionPage);
+    }
+}
@@ -0,0 +1,159 @@
+package com.devik.sage.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays the configured traffic mix over HTTP from virtual-thread clients and records
+ * per-operation latency in HDR histograms (microseconds). Every completed request is
+ * recorded, failures and timeouts included, and failures once more in their own histogram.
+ * In the open-loop mode latency is measured from each request's scheduled start, so a
+ * stalled server shows up as latency rather than as fewer requests sent.
+ */
+final class LoadDriver {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private final HttpClient http;
+    private final URI base;
+    private final LoadTestConfig config;
+    private final List<String> tokens;
+    private final Operation[] schedule;
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, Recorder> errorRecorders = new EnumMap<>(Operation.class);
+
+    LoadDriver(HttpClient http, URI base, LoadTestConfig config, List<String> tokens) {
+        this.http = http;
+        this.base = base;
+        this.config = config;
+        this.tokens = tokens;
+
+        // One slot per unit of weight, so picking an operation is one random index
+        List<Operation> slots = new ArrayList<>();
+        config.mix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(operation);
+            }
+        });
+        this.schedule = slots.toArray(Operation[]::new);
+        for (Operation operation : config.mix().keySet()) {
+            recorders.put(operation, new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+            errorRecorders.put(operation, new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+        }
+    }
+
+    LoadReport run() {
+        System.out.printf("Warming up for %d s%n", config.warmupSeconds());
+        drive(config.warmupSeconds());
+        recorders.values().forEach(Recorder::reset);
+        errorRecorders.values().forEach(Recorder::reset);
+
+        System.out.printf("Measuring for %d s%n", config.durationSeconds());
+        long started = System.nanoTime();
+        drive(config.durationSeconds());
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        Map<Operation, Histogram> errorHistograms = new EnumMap<>(Operation.class);
+        recorders.forEach((operation, recorder) -> histograms.put(operation, recorder.getIntervalHistogram()));
+        errorRecorders.forEach((operation, recorder) -> errorHistograms.put(operation, recorder.getIntervalHistogram()));
+        return new LoadReport(config, elapsedSeconds, histograms, errorHistograms);
+    }
+
+    private void drive(int seconds) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        // close() waits for the requests still in flight
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (config.openLoop()) {
+                long interval = TimeUnit.SECONDS.toNanos(1) / config.rate();
+                for (long next = System.nanoTime(); next < deadline; next += interval) {
+                    long scheduled = next;
+                    clients.execute(() -> execute(scheduled));
+                    LockSupport.parkNanos(next + interval - System.nanoTime());
+                }
+            } else {
+                for (int i = 0; i < config.clients(); i++) {
+                    clients.execute(() -> {
+                        while (System.nanoTime() < deadline) {
+                            execute(System.nanoTime());
+                        }
+                    });
+                }
+            }
+        }
+    }
+
+    private void execute(long scheduledStart) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Operation operation = schedule[random.nextInt(schedule.length)];
+        boolean failed;
+        try {
+            HttpResponse<Void> response = http.send(request(operation, random), HttpResponse.BodyHandlers.discarding());
+            failed = response.statusCode() >= 400;
+        } catch (IOException e) {
+            // Includes timeouts, which belong in the tail rather than being left out of it
+            failed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledStart), HIGHEST_TRACKABLE_MICROS);
+        recorders.get(operation).recordValue(micros);
+        if (failed) {
+            errorRecorders.get(operation).recordValue(micros);
+        }
+    }
+
+    private HttpRequest request(Operation operation, ThreadLocalRandom random) {
+        return switch (operation) {
+            case LIST -> get("/api/questions/public?size=20&page=" + random.nextInt(50));
+            case DETAIL -> get("/api/questions/" + popularQuestion(random) + "/with-answers?size=10");
+            case ANSWERS -> get("/api/questions/" + popularQuestion(random) + "/answers?size=10");
+            case TAGS -> get("/api/tags/popular?limit=20");
+            case SEARCH -> get("/api/questions/search?size=10&q="
+                    + SyntheticDump.WORDS[random.nextInt(SyntheticDump.WORDS.length)]);
+            case ANSWER -> post("/api/questions/" + popularQuestion(random) + "/answers",
+                    "{\"content\":\"" + SyntheticDump.paragraph(random) + "\"}", random);
+            case COMMENT -> post("/api/comments/question/" + popularQuestion(random),
+                    "{\"content\":\"" + SyntheticDump.sentence(random, 12) + "\"}", random);
+            case VOTE -> post("/api/questions/" + popularQuestion(random) + "/votes",
+                    random.nextInt(5) == 0 ? "{\"vote\":\"down\"}" : "{\"vote\":\"up\"}", random);
+        };
+    }
+
+    // Skewed towards the newest questions, the way front-page traffic is
+    private long popularQuestion(ThreadLocalRandom random) {
+        long offset = (long) (config.questions() * Math.pow(random.nextDouble(), 3));
+        return Math.max(1, config.questions() - offset);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).timeout(REQUEST_TIMEOUT).GET().build();
+    }
+
+    private HttpRequest post(String path, String json, ThreadLocalRandom random) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + tokens.get(random.nextInt(tokens.size())))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+}
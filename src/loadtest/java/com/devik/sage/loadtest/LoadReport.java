@@ -0,0 +1,77 @@
+package com.devik.sage.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-operation throughput, errors and latency percentiles of one measured run. The
+ * percentiles cover every request, failed ones included; the error p99 covers failures only.
+ */
+record LoadReport(LoadTestConfig config, double elapsedSeconds, Map<Operation, Histogram> histograms,
+                  Map<Operation, Histogram> errorHistograms) {
+
+    private static final String HEADER = "operation,requests,errors,req_per_s,p50_ms,p90_ms,p99_ms,p999_ms,max_ms,err_p99_ms";
+    private static final String TABLE_ROW = "%-9s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %10.2f";
+    private static final String CSV_ROW = "%s,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f";
+
+    void print(PrintStream out) {
+        out.printf("%n%s threads, pool size %d, %s, %.0f s measured%n",
+                config.virtualThreads() ? "Virtual" : "Platform", config.poolSize(),
+                config.openLoop() ? config.rate() + " req/s offered" : config.clients() + " closed-loop clients",
+                elapsedSeconds);
+        out.printf("%-9s %9s %7s %9s %9s %9s %9s %9s %9s %10s%n",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "err p99 ms");
+        histograms.forEach((operation, histogram) -> out.println(
+                format(operation.mixName(), histogram, errorHistograms.get(operation), TABLE_ROW)));
+        out.println(format("total", sum(histograms), sum(errorHistograms), TABLE_ROW));
+    }
+
+    /**
+     * Writes summary.csv and percentile distributions (.hgrm, in milliseconds) per operation:
+     * one over all requests and one, suffixed -errors, over the failed ones.
+     */
+    void write(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        try (PrintStream csv = new PrintStream(Files.newOutputStream(dir.resolve("summary.csv")))) {
+            csv.println(HEADER);
+            histograms.forEach((operation, histogram) -> csv.println(
+                    format(operation.mixName(), histogram, errorHistograms.get(operation), CSV_ROW)));
+            // Read back by the loadTestComparison task
+            csv.println(format("total", sum(histograms), sum(errorHistograms), CSV_ROW));
+        }
+        for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+            String name = entry.getKey().mixName();
+            writeDistribution(dir.resolve(name + ".hgrm"), entry.getValue());
+            writeDistribution(dir.resolve(name + "-errors.hgrm"), errorHistograms.get(entry.getKey()));
+        }
+    }
+
+    private static Histogram sum(Map<Operation, Histogram> byOperation) {
+        Histogram total = new Histogram(3);
+        byOperation.values().forEach(total::add);
+        return total;
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream hgrm = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(hgrm, 1000.0);
+        }
+    }
+
+    private String format(String name, Histogram histogram, Histogram errorHistogram, String pattern) {
+        return String.format(Locale.ROOT, pattern, name, histogram.getTotalCount(), errorHistogram.getTotalCount(),
+                histogram.getTotalCount() / elapsedSeconds,
+                millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0, millis(errorHistogram, 99));
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
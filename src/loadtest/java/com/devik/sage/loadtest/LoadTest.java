@@ -0,0 +1,118 @@
+package com.devik.sage.loadtest;
+
+import com.devik.sage.SageApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * End-to-end load test. Starts an embedded PostgreSQL, writes a synthetic dump and boots
+ * {@link SageApplication} on it, letting the app's importer seed the data. It then drives
+ * the configured traffic mix through the real HTTP stack (security filters, controllers,
+ * services, JPA) and prints per-operation throughput and latency percentiles. Runs offline:
+ * {@code ./gradlew loadTest --args="--clients=64 --duration=60"}. See {@link LoadTestConfig}
+ * for the options.
+ */
+public final class LoadTest {
+
+    // Set on the first --writers imported accounts, which post answers, comments and votes
+    private static final String PASSWORD = "load-test-password";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        Path dumpDir = Files.createTempDirectory("sage-loadtest-dump");
+        System.out.printf("Writing synthetic dump (%d users, %d questions) to %s%n",
+                config.users(), config.questions(), dumpDir);
+        SyntheticDump.write(dumpDir, config);
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             ConfigurableApplicationContext app = boot(postgres, config, dumpDir)) {
+            enableWriters(app, config);
+            URI base = URI.create("http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort());
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            LoadReport report = new LoadDriver(http, base, config, login(http, base, config)).run();
+            report.print(System.out);
+            report.write(config.outputDir());
+            System.out.printf("%nHistograms written to %s%n", config.outputDir().toAbsolutePath());
+        }
+    }
+
+    private static ConfigurableApplicationContext boot(EmbeddedPostgres postgres, LoadTestConfig config, Path dumpDir) {
+        // Command-line arguments, so they take precedence over application.properties
+        String[] args = {
+                "--spring.datasource.url=jdbc:postgresql://localhost:" + postgres.getPort()
+                        + "/postgres?reWriteBatchedInserts=true",
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.datasource.hikari.maximum-pool-size=" + config.poolSize(),
+                "--spring.threads.virtual.enabled=" + config.virtualThreads(),
+                "--server.port=0",
+                "--management.server.port=0",
+                "--sage.import.dir=" + dumpDir,
+                "--sage.search.index-dir=",
+                "--sage.counters.reconcile-cron=-",
+                // The checked-in DEBUG/TRACE logging would dominate every request
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.devik.sage=INFO",
+                "--logging.level.org.springframework.web=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.org.springframework.transaction=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                "--logging.level.org.postgresql=WARN"
+        };
+        return new SpringApplicationBuilder(SageApplication.class).run(args);
+    }
+
+    private static void enableWriters(ConfigurableApplicationContext app, LoadTestConfig config) {
+        String hash = app.getBean(PasswordEncoder.class).encode(PASSWORD);
+        app.getBean(JdbcTemplate.class).update("UPDATE users SET password = ? WHERE id BETWEEN 1 AND ?",
+                hash, config.writers());
+    }
+
+    private static List<String> login(HttpClient http, URI base, LoadTestConfig config)
+            throws IOException, InterruptedException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> tokens = new ArrayList<>(config.writers());
+        for (int id = 1; id <= config.writers(); id++) {
+            String body = objectMapper.writeValueAsString(
+                    objectMapper.createObjectNode().put("username", "se_" + id).put("password", PASSWORD));
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(base.resolve("/api/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            JsonNode token = objectMapper.readTree(response.body()).get("token");
+            if (response.statusCode() != 200 || token == null) {
+                throw new IllegalStateException("Login failed for se_" + id + ": " + response.body());
+            }
+            tokens.add(token.asText());
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,84 @@
+package com.devik.sage.loadtest;
+
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Load test settings, from {@code --name=value} arguments, e.g.
+ * {@code ./gradlew loadTest --args="--clients=128 --duration=120 --virtual-threads=true"}.
+ */
+record LoadTestConfig(
+        int users,
+        int writers,
+        int tags,
+        int questions,
+        int answersPerQuestion,
+        int clients,
+        int rate,
+        int warmupSeconds,
+        int durationSeconds,
+        Map<Operation, Integer> mix,
+        int poolSize,
+        boolean virtualThreads,
+        long seed,
+        Path outputDir) {
+
+    private static final String DEFAULT_MIX =
+            "list:25,detail:25,answers:10,tags:5,search:10,answer:5,comment:10,vote:10";
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        LoadTestConfig config = new LoadTestConfig(
+                intValue(values, "users", 2_000),
+                intValue(values, "writers", 200),
+                intValue(values, "tags", 300),
+                intValue(values, "questions", 20_000),
+                intValue(values, "answers-per-question", 3),
+                intValue(values, "clients", 64),
+                intValue(values, "rate", 0),
+                intValue(values, "warmup", 30),
+                intValue(values, "duration", 60),
+                parseMix(values.getOrDefault("mix", DEFAULT_MIX)),
+                intValue(values, "pool-size", 20),
+                Boolean.parseBoolean(values.getOrDefault("virtual-threads", "false")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                Path.of(values.getOrDefault("out", "build/loadtest")));
+        if (config.writers() > config.users()) {
+            throw new IllegalArgumentException("--writers can't exceed --users");
+        }
+        return config;
+    }
+
+    /** {@code --rate=0} runs a closed loop of {@code clients}; otherwise requests arrive at a fixed rate. */
+    boolean openLoop() {
+        return rate > 0;
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.byName(parts[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("--mix needs at least one operation with a positive weight");
+        }
+        return weights;
+    }
+
+    private static int intValue(Map<String, String> values, String name, int defaultValue) {
+        String value = values.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+}
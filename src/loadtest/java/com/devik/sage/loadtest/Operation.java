@@ -0,0 +1,32 @@
+package com.devik.sage.loadtest;
+
+import java.util.Arrays;
+
+/** The request types in the traffic mix, named as they appear in {@code --mix}. */
+enum Operation {
+    LIST("list"),
+    DETAIL("detail"),
+    ANSWERS("answers"),
+    TAGS("tags"),
+    SEARCH("search"),
+    ANSWER("answer"),
+    COMMENT("comment"),
+    VOTE("vote");
+
+    private final String mixName;
+
+    Operation(String mixName) {
+        this.mixName = mixName;
+    }
+
+    String mixName() {
+        return mixName;
+    }
+
+    static Operation byName(String name) {
+        return Arrays.stream(values())
+                .filter(operation -> operation.mixName.equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown operation in --mix: " + name));
+    }
+}
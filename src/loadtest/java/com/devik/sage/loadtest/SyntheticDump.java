@@ -0,0 +1,130 @@
+package com.devik.sage.loadtest;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Writes a synthetic Stack Exchange dump (Users.xml, Tags.xml, Posts.xml) for the app's own
+ * importer to load, so seeding goes through the same path as a real dump. Question ids are
+ * 1..questions, answer ids follow them, and everything is derived from the seed.
+ */
+final class SyntheticDump {
+
+    static final String[] WORDS = {
+            "java", "spring", "hibernate", "transaction", "index", "query", "cache", "thread", "stream",
+            "latency", "batch", "lock", "schema", "migration", "join", "cursor", "pagination", "json",
+            "token", "security", "filter", "pool", "connection", "timeout", "retry", "deadlock",
+            "sequence", "counter", "vote", "badge", "search", "lucene", "gradle", "docker", "kubernetes",
+            "memory", "garbage", "collector", "virtual", "reactive", "serialization", "benchmark"};
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final XMLOutputFactory FACTORY = XMLOutputFactory.newFactory();
+
+    private SyntheticDump() {
+    }
+
+    static void write(Path dir, LoadTestConfig config) throws IOException {
+        Random random = new Random(config.seed());
+        Files.createDirectories(dir);
+        writeFile(dir.resolve("Users.xml"), "users", xml -> {
+            for (int id = 1; id <= config.users(); id++) {
+                row(xml, "Id", id, "DisplayName", "Load user " + id, "Reputation", random.nextInt(5_000),
+                        "Views", random.nextInt(1_000), "CreationDate", EPOCH.plusMinutes(id));
+            }
+        });
+        writeFile(dir.resolve("Tags.xml"), "tags", xml -> {
+            for (int id = 1; id <= config.tags(); id++) {
+                row(xml, "Id", id, "TagName", tagName(id), "Count", 0);
+            }
+        });
+        writeFile(dir.resolve("Posts.xml"), "posts", xml -> {
+            long answerId = config.questions();
+            long minutesPerQuestion = Math.max(1, 365L * 24 * 60 / Math.max(1, config.questions()));
+            for (int id = 1; id <= config.questions(); id++) {
+                LocalDateTime created = EPOCH.plusMinutes(id * minutesPerQuestion);
+                row(xml, "Id", id, "PostTypeId", 1, "Title", sentence(random, 8), "Body", paragraph(random),
+                        "Tags", tags(random, config.tags()), "OwnerUserId", 1 + random.nextInt(config.users()),
+                        "Score", random.nextInt(20) - 3, "ViewCount", random.nextInt(5_000),
+                        "CreationDate", created);
+            }
+            // Answers after all questions keep ids ascending, as the importer's checkpoints expect
+            for (int questionId = 1; questionId <= config.questions(); questionId++) {
+                int answers = random.nextInt(2 * config.answersPerQuestion() + 1);
+                for (int i = 0; i < answers; i++) {
+                    row(xml, "Id", ++answerId, "PostTypeId", 2, "ParentId", questionId, "Body", paragraph(random),
+                            "OwnerUserId", 1 + random.nextInt(config.users()), "Score", random.nextInt(15) - 2,
+                            "CreationDate", EPOCH.plusMinutes(questionId * minutesPerQuestion + i + 1));
+                }
+            }
+        });
+    }
+
+    static String tagName(int id) {
+        return WORDS[id % WORDS.length] + "-" + id;
+    }
+
+    static String sentence(Random random, int words) {
+        StringBuilder sentence = new StringBuilder("How to");
+        for (int i = 0; i < words; i++) {
+            sentence.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.append('?').toString();
+    }
+
+    static String paragraph(Random random) {
+        StringBuilder paragraph = new StringBuilder("<p>");
+        int sentences = 3 + random.nextInt(6);
+        for (int i = 0; i < sentences; i++) {
+            paragraph.append(sentence(random, 10 + random.nextInt(15))).append(' ');
+        }
+        return paragraph.append("</p>").toString();
+    }
+
+    private static String tags(Random random, int tagCount) {
+        Set<String> names = new LinkedHashSet<>();
+        int count = 1 + random.nextInt(Math.min(5, tagCount));
+        while (names.size() < count) {
+            names.add(tagName(1 + random.nextInt(tagCount)));
+        }
+        return "|" + String.join("|", names) + "|";
+    }
+
+    private static void row(XMLStreamWriter xml, Object... attributes) {
+        try {
+            xml.writeEmptyElement("row");
+            for (int i = 0; i < attributes.length; i += 2) {
+                xml.writeAttribute((String) attributes[i], String.valueOf(attributes[i + 1]));
+            }
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeFile(Path file, String root, RowWriter rows) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            XMLStreamWriter xml = FACTORY.createXMLStreamWriter(out, "UTF-8");
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.writeStartElement(root);
+            rows.write(xml);
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to write " + file, e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(XMLStreamWriter xml);
+    }
+}
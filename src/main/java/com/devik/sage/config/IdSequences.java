@@ -0,0 +1,61 @@
+package com.devik.sage.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Keeps each entity id sequence ahead of the ids already in its table. Tables created
+ * under identity columns (or filled by a bulk import) hold ids the new sequences know
+ * nothing about, so every sequence is moved past {@code max(id)} before the app serves
+ * requests.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdSequences implements SmartInitializingSingleton {
+
+    // Must match the allocationSize of the entities' @SequenceGenerator
+    public static final int ALLOCATION_SIZE = 50;
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "users", "users_seq",
+            "questions", "questions_seq",
+            "answers", "answers_seq",
+            "comments", "comments_seq",
+            "votes", "votes_seq",
+            "tags", "tags_seq",
+            "user_badges", "user_badges_seq",
+            "reputation_events", "reputation_events_seq");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Injected only so the schema exists (ddl-auto) before the sequences are touched
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        alignAll();
+    }
+
+    public void alignAll() {
+        SEQUENCES.forEach(this::align);
+    }
+
+    private void align(String table, String sequence) {
+        // Leave a full block of headroom so no pooled block can reach an existing id
+        Long floor = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(id), 0) + " + ALLOCATION_SIZE + " FROM " + table, Long.class);
+        Long current = jdbcTemplate.queryForObject(
+                "SELECT last_value FROM " + sequence, Long.class);
+        if (current != null && floor != null && current < floor) {
+            jdbcTemplate.queryForObject("SELECT setval('" + sequence + "', ?)", Long.class, floor);
+            log.info("Moved sequence {} from {} to {}", sequence, current, floor);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.devik.sage.config;
+
+import io.micrometer.java21.instrument.binder.jdk.VirtualThreadMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Meters Actuator doesn't register on its own. Request, repository, Hikari, Hibernate,
+ * JVM and GC meters are auto-configured; the app's own counters are bound by the
+ * components that own them (they implement {@code MeterBinder}).
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Pinned and failed-to-start virtual threads, read from JFR events; zero in platform-thread mode
+    @Bean(destroyMethod = "close")
+    public VirtualThreadMetrics virtualThreadMetrics() {
+        return new VirtualThreadMetrics();
+    }
+}
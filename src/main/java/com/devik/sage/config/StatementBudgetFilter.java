@@ -0,0 +1,99 @@
+package com.devik.sage.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the SQL statements each request runs, records them per URI template, and logs
+ * requests that go over {@code sage.statements.budget} or repeat one statement text
+ * {@code sage.statements.repeat-threshold} times or more, the usual sign of an N+1.
+ * Statements run by async handlers after the request thread returns (the streaming
+ * export) are not counted.
+ */
+@Component
+@ConditionalOnProperty(name = "sage.statements.enabled", havingValue = "true", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+@Slf4j
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${sage.statements.budget:10}")
+    private int budget;
+
+    @Value("${sage.statements.repeat-threshold:5}")
+    private int repeatThreshold;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        StatementStats stats = new StatementStats();
+        StatementStats previous = StatementStats.bind(stats);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            StatementStats.restore(previous);
+            request.setAttribute(StatementStats.REQUEST_ATTRIBUTE, stats);
+            report(request, stats);
+        }
+    }
+
+    private void report(HttpServletRequest request, StatementStats stats) {
+        if (stats.getCount() == 0) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : request.getRequestURI();
+
+        // Meters only for mapped requests, so tags stay within the set of URI templates
+        if (pattern != null) {
+            DistributionSummary.builder("sage.http.statements")
+                    .description("SQL statements per request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(stats.getCount());
+            Timer.builder("sage.http.statement.time")
+                    .description("Time spent executing SQL statements per request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(stats.getNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(stats.getNanos());
+        if (stats.getCount() > budget) {
+            log.warn("{} {} ran {} SQL statements ({} ms), over the budget of {}",
+                    request.getMethod(), uri, stats.getCount(), millis, budget);
+        } else {
+            log.debug("{} {} ran {} SQL statements ({} ms)", request.getMethod(), uri, stats.getCount(), millis);
+        }
+        for (Map.Entry<String, Integer> repeated : stats.repeated(repeatThreshold)) {
+            log.warn("Possible N+1 in {} {}: {} executions of {}",
+                    request.getMethod(), uri, repeated.getValue(), repeated.getKey());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.devik.sage.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Wraps the data source so every statement, whether issued by Hibernate or JdbcTemplate,
+ * is counted into the current request's {@link StatementStats}. Outside a request the
+ * listener only does a ThreadLocal lookup.
+ */
+@Component
+@ConditionalOnProperty(name = "sage.statements.enabled", havingValue = "true", matchIfMissing = true)
+public class StatementCounting implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+            // The proxy unwraps to the pool, so Hikari metrics and health checks still find it
+            return ProxyDataSourceBuilder.create(dataSource)
+                    .name(beanName)
+                    .listener(new Listener())
+                    .build();
+        }
+        return bean;
+    }
+
+    private static final class Listener implements QueryExecutionListener {
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            StatementStats stats = StatementStats.current();
+            if (stats != null) {
+                stats.started();
+            }
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            StatementStats stats = StatementStats.current();
+            if (stats != null) {
+                stats.finished(queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery());
+            }
+        }
+    }
+}
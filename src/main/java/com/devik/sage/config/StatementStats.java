@@ -0,0 +1,79 @@
+package com.devik.sage.config;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL statements executed on the current thread while a request is being served: how
+ * many, how long they took to execute, and how often each statement text ran. Bound by
+ * {@link StatementBudgetFilter}; statements outside a request (scheduled jobs, async
+ * work) are not counted. A JDBC batch counts as one statement, one round trip.
+ */
+public final class StatementStats {
+
+    /** Request attribute holding the finished request's stats, for tests and diagnostics. */
+    public static final String REQUEST_ATTRIBUTE = StatementStats.class.getName();
+
+    private static final ThreadLocal<StatementStats> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Integer> executionsBySql = new HashMap<>();
+    private int count;
+    private long nanos;
+    private long startedAt;
+
+    static StatementStats current() {
+        return CURRENT.get();
+    }
+
+    /** Starts counting on this thread; returns the stats that were bound before, if any. */
+    static StatementStats bind(StatementStats stats) {
+        StatementStats previous = CURRENT.get();
+        CURRENT.set(stats);
+        return previous;
+    }
+
+    static void restore(StatementStats previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    void started() {
+        startedAt = System.nanoTime();
+    }
+
+    void finished(String sql) {
+        nanos += System.nanoTime() - startedAt;
+        count++;
+        executionsBySql.merge(sql, 1, Integer::sum);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    /** Statement texts that ran at least {@code threshold} times, most frequent first. */
+    public List<Map.Entry<String, Integer>> repeated(int threshold) {
+        return executionsBySql.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .toList();
+    }
+
+    /** One line per distinct statement with its execution count, most frequent first. */
+    public String describe() {
+        StringBuilder description = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : repeated(1)) {
+            description.append(System.lineSeparator()).append(entry.getValue()).append("x ").append(entry.getKey());
+        }
+        return description.toString();
+    }
+}
@@ -2,12 +2,18 @@ package com.devik.sage.controller;
 
 import com.devik.sage.dto.AnswerRequest;
 import com.devik.sage.dto.AnswerResponse;
+import com.devik.sage.dto.CursorPageResponse;
 import com.devik.sage.dto.PageResponse;
+import com.devik.sage.dto.VoteRequest;
+import com.devik.sage.dto.VoteResponse;
 import com.devik.sage.model.Answer;
 import com.devik.sage.model.User;
+import com.devik.sage.security.AuthenticatedUser;
 import com.devik.sage.service.AnswerService;
+import com.devik.sage.service.QuestionReadCoalescer;
+import com.devik.sage.service.QuestionService;
 import com.devik.sage.service.UserService;
-import lombok.Data;
+import com.devik.sage.service.VoteService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
@@ -15,6 +21,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.stream.Collectors;
 
@@ -25,16 +32,33 @@ import java.util.stream.Collectors;
 public class AnswerController {
 
     private final AnswerService answerService;
+    private final QuestionService questionService;
     private final UserService userService;
+    private final QuestionReadCoalescer questionReadCoalescer;
+    private final VoteService voteService;
 
     @GetMapping
     public ResponseEntity<PageResponse<AnswerResponse>> getAnswers(
             @PathVariable Long questionId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        Page<Answer> answerPage = answerService.getAnswersByQuestionId(questionId, page, size);
+            @AuthenticationPrincipal AuthenticatedUser userDetails,
+            WebRequest request) {
+
+        String resource = "a-p" + page + "s" + size;
+        if (ConditionalGet.isConditional(request)) {
+            String etag = ConditionalGet.etag(resource, questionService.getQuestionVersion(questionId), userDetails);
+            if (request.checkNotModified(etag)) {
+                return ConditionalGet.notModified(etag);
+            }
+        }
+
+        Page<Answer> answerPage = questionReadCoalescer.getAnswersByQuestionId(questionId, page, size);
+        // A coalesced load may have started before any version read; the answers' question carries its own.
+        // An empty page has no question to take it from, and the version read also turns a missing one into a 404.
+        String etag = ConditionalGet.etag(resource, answerPage.hasContent()
+                ? QuestionService.versionOf(answerPage.getContent().get(0).getQuestion())
+                : questionService.getQuestionVersion(questionId), userDetails);
 
         PageResponse<AnswerResponse> response = new PageResponse<>();
         response.setContent(answerPage.getContent().stream()
@@ -48,6 +72,28 @@ public class AnswerController {
         response.setLast(answerPage.isLast());
         response.setEmpty(answerPage.isEmpty());
 
+        return ConditionalGet.ok(etag, true, response);
+    }
+
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponse<AnswerResponse>> getAnswersByCursor(
+            @PathVariable Long questionId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        CursorPageResponse<Answer> answerPage = answerService.getAnswersByQuestionId(questionId, cursor, size);
+
+        CursorPageResponse<AnswerResponse> response = new CursorPageResponse<>();
+        response.setContent(answerPage.getContent().stream()
+                .map(answer -> convertToResponse(answer, userDetails))
+                .collect(Collectors.toList()));
+        response.setSize(answerPage.getSize());
+        response.setNextCursor(answerPage.getNextCursor());
+        response.setPrevCursor(answerPage.getPrevCursor());
+        response.setHasNext(answerPage.isHasNext());
+        response.setHasPrevious(answerPage.isHasPrevious());
+
         return ResponseEntity.ok(response);
     }
 
@@ -55,14 +101,13 @@ public class AnswerController {
     public ResponseEntity<AnswerResponse> createAnswer(
             @PathVariable Long questionId,
             @RequestBody AnswerRequest answerRequest,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
 
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userService.getReference(currentUser);
         Answer answer = answerService.createAnswer(answerRequest.getContent(), questionId, user);
 
         return ResponseEntity.status(HttpStatus.CREATED)
-                .body(convertToResponse(answer, userDetails));
+                .body(convertToResponse(answer, currentUser));
     }
 
     @PutMapping("/{answerId}")
@@ -70,23 +115,21 @@ public class AnswerController {
             @PathVariable Long questionId,
             @PathVariable Long answerId,
             @RequestBody AnswerRequest answerRequest,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
 
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userService.getReference(currentUser);
         Answer answer = answerService.updateAnswer(answerId, answerRequest.getContent(), user);
 
-        return ResponseEntity.ok(convertToResponse(answer, userDetails));
+        return ResponseEntity.ok(convertToResponse(answer, currentUser));
     }
 
     @DeleteMapping("/{answerId}")
     public ResponseEntity<Void> deleteAnswer(
             @PathVariable Long questionId,
             @PathVariable Long answerId,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
 
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userService.getReference(currentUser);
         answerService.deleteAnswer(answerId, user);
 
         return ResponseEntity.noContent().build();
@@ -96,13 +139,12 @@ public class AnswerController {
     public ResponseEntity<AnswerResponse> acceptAnswer(
             @PathVariable Long questionId,
             @PathVariable Long answerId,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
 
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userService.getReference(currentUser);
         Answer answer = answerService.acceptAnswer(answerId, user);
 
-        return ResponseEntity.ok(convertToResponse(answer, userDetails));
+        return ResponseEntity.ok(convertToResponse(answer, currentUser));
     }
 
     @PostMapping("/{answerId}/votes")
@@ -110,19 +152,22 @@ public class AnswerController {
             @PathVariable Long questionId,
             @PathVariable Long answerId,
             @RequestBody VoteRequest voteRequest,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
 
-        // For now, just return the answer without voting functionality
-        // TODO: Implement voting in AnswerService
+        User user = userService.getReference(currentUser);
+        VoteResponse vote = voteService.voteOnAnswer(answerId, user, voteRequest.getVote());
         Answer answer = answerService.getAnswerById(answerId);
 
-        return ResponseEntity.ok(convertToResponse(answer, userDetails));
+        // Counts from the vote include deltas not yet folded into the stored columns
+        AnswerResponse response = convertToResponse(answer, currentUser);
+        response.setUpvoteCount(vote.getUpvoteCount());
+        response.setDownvoteCount(vote.getDownvoteCount());
+        response.setTotalVotes(vote.getScore());
+        return ResponseEntity.ok(response);
     }
 
-    private AnswerResponse convertToResponse(Answer answer, UserDetails userDetails) {
+    // Package-private for the JMH benchmarks
+    AnswerResponse convertToResponse(Answer answer, UserDetails userDetails) {
         AnswerResponse response = new AnswerResponse();
         response.setId(answer.getId());
         response.setContent(answer.getBody());
@@ -134,14 +179,9 @@ public class AnswerController {
         response.setAccepted(answer.isAccepted());
         response.setUpvoteCount(answer.getUpvoteCount());
         response.setDownvoteCount(answer.getDownvoteCount());
-        response.setTotalVotes(answer.getUpvoteCount() - answer.getDownvoteCount());
+        response.setTotalVotes(answer.getScore());
         response.setAuthor(userDetails != null && userDetails.getUsername().equals(answer.getUser().getUsername()));
 
         return response;
     }
-
-    @Data
-    public static class VoteRequest {
-        private String vote;
-    }
 }
@@ -3,14 +3,18 @@ package com.devik.sage.controller;
 import com.devik.sage.dto.LoginRequest;
 import com.devik.sage.dto.RegisterRequest;
 import com.devik.sage.model.User;
+import com.devik.sage.security.AuthenticatedUser;
 import com.devik.sage.security.JwtUtil;
+import com.devik.sage.security.TokenDenyList;
 import com.devik.sage.service.UserService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
@@ -24,18 +28,19 @@ import java.util.Map;
 public class AuthController {
 
     private final AuthenticationManager authenticationManager;
-    private final UserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
+    private final TokenDenyList tokenDenyList;
     private final UserService userService;
 
     @PostMapping("/login")
     public ResponseEntity<Map<String, String>> login(@RequestBody LoginRequest request) {
         try {
-            authenticationManager.authenticate(
+            Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
             );
 
-            UserDetails userDetails = userDetailsService.loadUserByUsername(request.getUsername());
+            // The authenticated principal already carries the user id; no second lookup
+            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
             String jwt = jwtUtil.generateToken(userDetails);
 
             Map<String, String> response = new HashMap<>();
@@ -70,9 +75,9 @@ public class AuthController {
             user.setPassword(request.getPassword());
             user.setCreatedAt(LocalDateTime.now());
 
-            userService.registerUser(user);
+            User saved = userService.registerUser(user);
 
-            UserDetails userDetails = userDetailsService.loadUserByUsername(request.getUsername());
+            UserDetails userDetails = new AuthenticatedUser(saved.getId(), saved.getUsername());
             String jwt = jwtUtil.generateToken(userDetails);
 
             Map<String, String> response = new HashMap<>();
@@ -85,4 +90,17 @@ public class AuthController {
             return ResponseEntity.badRequest().body(response);
         }
     }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                Claims claims = jwtUtil.parseToken(authHeader.substring(7));
+                tokenDenyList.revoke(claims.getId(), claims.getExpiration().toInstant());
+            } catch (JwtException | IllegalArgumentException e) {
+                // Already invalid, nothing to revoke
+            }
+        }
+        return ResponseEntity.noContent().build();
+    }
 }
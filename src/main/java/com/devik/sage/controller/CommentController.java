@@ -1,14 +1,21 @@
 package com.devik.sage.controller;
 
+import com.devik.sage.dto.BulkCommentsResponse;
 import com.devik.sage.dto.CommentRequest;
 import com.devik.sage.dto.CommentResponse;
 import com.devik.sage.model.Comment;
+import com.devik.sage.model.User;
+import com.devik.sage.security.AuthenticatedUser;
 import com.devik.sage.service.CommentService;
+import com.devik.sage.service.QuestionPageComments;
+import com.devik.sage.service.QuestionService;
+import com.devik.sage.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -19,7 +26,12 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "http://localhost:3000")
 public class CommentController {
 
+    private static final int MAX_ANSWER_IDS = 100;
+    private static final int MAX_PER_PARENT = 50;
+
     private final CommentService commentService;
+    private final QuestionService questionService;
+    private final UserService userService;
 
     @GetMapping("/question/{questionId}")
     public ResponseEntity<List<CommentResponse>> getCommentsByQuestion(@PathVariable Long questionId) {
@@ -30,6 +42,34 @@ public class CommentController {
         return ResponseEntity.ok(responses);
     }
 
+    /** Comments for a question and the answers shown with it, capped per parent. */
+    @GetMapping("/question/{questionId}/page")
+    public ResponseEntity<BulkCommentsResponse> getCommentsForQuestionPage(
+            @PathVariable Long questionId,
+            @RequestParam(defaultValue = "") List<Long> answerIds,
+            @RequestParam(defaultValue = "5") int perParent,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            WebRequest request) {
+        if (answerIds.size() > MAX_ANSWER_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_ANSWER_IDS + " answer ids per request");
+        }
+        int cap = Math.max(1, Math.min(perParent, MAX_PER_PARENT));
+
+        // Comment changes move the question's version, so it covers this response too
+        String resource = "c-n" + cap + "-" + Integer.toHexString(answerIds.hashCode());
+        if (ConditionalGet.isConditional(request)) {
+            String etag = ConditionalGet.etag(resource, questionService.getQuestionVersion(questionId), currentUser);
+            if (request.checkNotModified(etag)) {
+                return ConditionalGet.notModified(etag);
+            }
+        }
+
+        Long viewerId = currentUser != null ? currentUser.getId() : null;
+        QuestionPageComments comments = commentService.getCommentsForQuestionPage(questionId, answerIds, cap, viewerId);
+        return ConditionalGet.ok(ConditionalGet.etag(resource, comments.questionVersion(), currentUser), true,
+                comments.comments());
+    }
+
     @GetMapping("/answer/{answerId}")
     public ResponseEntity<List<CommentResponse>> getCommentsByAnswer(@PathVariable Long answerId) {
         List<Comment> comments = commentService.getCommentsByAnswer(answerId);
@@ -43,9 +83,9 @@ public class CommentController {
     public ResponseEntity<CommentResponse> createCommentForQuestion(
             @PathVariable Long questionId,
             @RequestBody CommentRequest request,
-            Authentication authentication) {
-        String username = authentication.getName();
-        Comment comment = commentService.createCommentForQuestion(questionId, request.getContent(), username);
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        User user = userService.getReference(currentUser);
+        Comment comment = commentService.createCommentForQuestion(questionId, request.getContent(), user);
         return ResponseEntity.status(HttpStatus.CREATED).body(convertToResponse(comment));
     }
 
@@ -53,9 +93,9 @@ public class CommentController {
     public ResponseEntity<CommentResponse> createCommentForAnswer(
             @PathVariable Long answerId,
             @RequestBody CommentRequest request,
-            Authentication authentication) {
-        String username = authentication.getName();
-        Comment comment = commentService.createCommentForAnswer(answerId, request.getContent(), username);
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        User user = userService.getReference(currentUser);
+        Comment comment = commentService.createCommentForAnswer(answerId, request.getContent(), user);
         return ResponseEntity.status(HttpStatus.CREATED).body(convertToResponse(comment));
     }
 
@@ -63,18 +103,18 @@ public class CommentController {
     public ResponseEntity<CommentResponse> updateComment(
             @PathVariable Long commentId,
             @RequestBody CommentRequest request,
-            Authentication authentication) {
-        String username = authentication.getName();
-        Comment comment = commentService.updateComment(commentId, request.getContent(), username);
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        User user = userService.getReference(currentUser);
+        Comment comment = commentService.updateComment(commentId, request.getContent(), user);
         return ResponseEntity.ok(convertToResponse(comment));
     }
 
     @DeleteMapping("/{commentId}")
     public ResponseEntity<Void> deleteComment(
             @PathVariable Long commentId,
-            Authentication authentication) {
-        String username = authentication.getName();
-        commentService.deleteComment(commentId, username);
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        User user = userService.getReference(currentUser);
+        commentService.deleteComment(commentId, user);
         return ResponseEntity.noContent().build();
     }
 
@@ -0,0 +1,49 @@
+package com.devik.sage.controller;
+
+import com.devik.sage.security.AuthenticatedUser;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * ETag helpers for the polled read endpoints. A request carrying If-None-Match reads a cheap
+ * version first, so a match is answered before anything else is loaded; any other request
+ * takes its tag from the data it loaded. The tags are weak because the bodies also carry view
+ * counts, which the versions leave out.
+ */
+final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    /** Responses that mark the viewer's own posts differ per user, so the viewer is part of the tag. */
+    static String etag(String resource, String version, AuthenticatedUser viewer) {
+        String owner = viewer == null ? "" : "-u" + viewer.getId();
+        return "W/\"" + resource + "-" + version + owner + "\"";
+    }
+
+    /** Only requests carrying If-None-Match pay for a version read ahead of the load. */
+    static boolean isConditional(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null;
+    }
+
+    static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    /**
+     * A 200 carrying the tag. no-cache lets clients keep the body but revalidate it on every
+     * use, and stops Spring Security from sending no-store.
+     */
+    static <T> ResponseEntity<T> ok(String etag, boolean perViewer, T body) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().eTag(etag);
+        if (perViewer) {
+            builder.cacheControl(CacheControl.noCache().cachePrivate()).varyBy(HttpHeaders.AUTHORIZATION);
+        } else {
+            builder.cacheControl(CacheControl.noCache());
+        }
+        return builder.body(body);
+    }
+}
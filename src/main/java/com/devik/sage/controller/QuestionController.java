@@ -1,22 +1,32 @@
 package com.devik.sage.controller;
 
+import com.devik.sage.dto.CursorPageResponse;
 import com.devik.sage.dto.QuestionRequest;
 import com.devik.sage.dto.QuestionResponse;
 import com.devik.sage.dto.PageResponse;
 import com.devik.sage.dto.AnswerResponse;
 import com.devik.sage.dto.QuestionWithAnswersResponse;
+import com.devik.sage.dto.VoteRequest;
+import com.devik.sage.dto.VoteResponse;
+import com.devik.sage.exception.ResourceNotFoundException;
 import com.devik.sage.model.Question;
 import com.devik.sage.model.Answer;
 import com.devik.sage.model.User;
+import com.devik.sage.security.AuthenticatedUser;
+import com.devik.sage.service.QuestionPage;
+import com.devik.sage.service.QuestionReadCoalescer;
 import com.devik.sage.service.QuestionService;
-import com.devik.sage.service.AnswerService;
 import com.devik.sage.service.UserService;
+import com.devik.sage.service.ViewCountBuffer;
+import com.devik.sage.service.VoteService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Arrays;
 import java.util.HashSet;
@@ -32,7 +42,9 @@ public class QuestionController {
 
     private final QuestionService questionService;
     private final UserService userService;
-    private final AnswerService answerService;
+    private final ViewCountBuffer viewCountBuffer;
+    private final QuestionReadCoalescer questionReadCoalescer;
+    private final VoteService voteService;
 
     @GetMapping("/public")
     public ResponseEntity<PageResponse<QuestionResponse>> getAllQuestions(
@@ -40,30 +52,35 @@ public class QuestionController {
             @RequestParam(defaultValue = "10") int size) {
         Page<Question> questionPage = questionService.getAllQuestions(page, size);
 
-        PageResponse<QuestionResponse> response = new PageResponse<>();
-        response.setContent(questionPage.getContent().stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList()));
-        response.setPage(questionPage.getNumber());
-        response.setSize(questionPage.getSize());
-        response.setTotalElements(questionPage.getTotalElements());
-        response.setTotalPages(questionPage.getTotalPages());
-        response.setFirst(questionPage.isFirst());
-        response.setLast(questionPage.isLast());
-        response.setEmpty(questionPage.isEmpty());
+        return ResponseEntity.ok(convertToPageResponse(questionPage));
+    }
 
-        return ResponseEntity.ok(response);
+    @GetMapping("/public/cursor")
+    public ResponseEntity<CursorPageResponse<QuestionResponse>> getAllQuestionsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        CursorPageResponse<Question> questionPage = questionService.getAllQuestions(cursor, size);
+        return ResponseEntity.ok(convertToCursorPageResponse(questionPage));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<QuestionResponse> getQuestion(@PathVariable Long id) {
+    public ResponseEntity<QuestionResponse> getQuestion(@PathVariable Long id, WebRequest request) {
         try {
-            // Automatically increment view count when question is fetched
-            questionService.incrementViewCount(id);
-            // Get the question with updated view count
-            Question question = questionService.getQuestionById(id);
-            return ResponseEntity.ok(convertToResponse(question));
-        } catch (RuntimeException e) {
+            if (ConditionalGet.isConditional(request)) {
+                String etag = ConditionalGet.etag("q", questionService.getQuestionVersion(id), null);
+                if (request.checkNotModified(etag)) {
+                    return ConditionalGet.notModified(etag);
+                }
+            }
+
+            // A coalesced load may have started before any version read; tag the body with its own version
+            Question question = questionReadCoalescer.getQuestionById(id);
+            // Only a served body counts as a view, not a 304 poll or an unknown id. Views are
+            // buffered in memory and flushed in batches, so this read makes no writes
+            viewCountBuffer.record(id);
+            String etag = ConditionalGet.etag("q", QuestionService.versionOf(question), null);
+            return ConditionalGet.ok(etag, false, convertToResponse(question));
+        } catch (ResourceNotFoundException e) {
             return ResponseEntity.notFound().build();
         }
     }
@@ -71,10 +88,9 @@ public class QuestionController {
     @PostMapping
     public ResponseEntity<QuestionResponse> createQuestion(
             @RequestBody QuestionRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            User user = userService.findByUsername(userDetails.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User user = userService.getReference(currentUser);
 
             Question question = new Question();
             question.setTitle(request.getTitle());
@@ -88,6 +104,9 @@ public class QuestionController {
 
             Question savedQuestion = questionService.createQuestion(question, tagNames, user);
             return ResponseEntity.ok(convertToResponse(savedQuestion));
+        } catch (DataAccessException e) {
+            // GlobalExceptionHandler turns a token that outlived its user into a 401
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -97,10 +116,9 @@ public class QuestionController {
     public ResponseEntity<QuestionResponse> updateQuestion(
             @PathVariable Long id,
             @RequestBody QuestionRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            User user = userService.findByUsername(userDetails.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User user = userService.getReference(currentUser);
 
             Question updatedQuestion = new Question();
             updatedQuestion.setTitle(request.getTitle());
@@ -108,6 +126,9 @@ public class QuestionController {
 
             Question result = questionService.updateQuestion(id, updatedQuestion, user);
             return ResponseEntity.ok(convertToResponse(result));
+        } catch (DataAccessException e) {
+            // GlobalExceptionHandler turns a token that outlived its user into a 401
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -116,18 +137,29 @@ public class QuestionController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteQuestion(
             @PathVariable Long id,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            User user = userService.findByUsername(userDetails.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User user = userService.getReference(currentUser);
 
             questionService.deleteQuestion(id, user);
             return ResponseEntity.ok().build();
+        } catch (DataAccessException e) {
+            // GlobalExceptionHandler turns a token that outlived its user into a 401
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @PostMapping("/{id}/votes")
+    public ResponseEntity<VoteResponse> voteOnQuestion(
+            @PathVariable Long id,
+            @RequestBody VoteRequest voteRequest,
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        User user = userService.getReference(currentUser);
+        return ResponseEntity.ok(voteService.voteOnQuestion(id, user, voteRequest.getVote()));
+    }
+
     @GetMapping("/search")
     public ResponseEntity<PageResponse<QuestionResponse>> searchQuestions(
             @RequestParam String q,
@@ -135,19 +167,16 @@ public class QuestionController {
             @RequestParam(defaultValue = "10") int size) {
         Page<Question> questionPage = questionService.searchQuestions(q, page, size);
 
-        PageResponse<QuestionResponse> response = new PageResponse<>();
-        response.setContent(questionPage.getContent().stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList()));
-        response.setPage(questionPage.getNumber());
-        response.setSize(questionPage.getSize());
-        response.setTotalElements(questionPage.getTotalElements());
-        response.setTotalPages(questionPage.getTotalPages());
-        response.setFirst(questionPage.isFirst());
-        response.setLast(questionPage.isLast());
-        response.setEmpty(questionPage.isEmpty());
+        return ResponseEntity.ok(convertToPageResponse(questionPage));
+    }
 
-        return ResponseEntity.ok(response);
+    @GetMapping("/search/cursor")
+    public ResponseEntity<CursorPageResponse<QuestionResponse>> searchQuestionsByCursor(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        CursorPageResponse<Question> questionPage = questionService.searchQuestions(q, cursor, size);
+        return ResponseEntity.ok(convertToCursorPageResponse(questionPage));
     }
 
     @GetMapping("/tagged/{tag}")
@@ -157,19 +186,16 @@ public class QuestionController {
             @RequestParam(defaultValue = "10") int size) {
         Page<Question> questionPage = questionService.getQuestionsByTag(tag, page, size);
 
-        PageResponse<QuestionResponse> response = new PageResponse<>();
-        response.setContent(questionPage.getContent().stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList()));
-        response.setPage(questionPage.getNumber());
-        response.setSize(questionPage.getSize());
-        response.setTotalElements(questionPage.getTotalElements());
-        response.setTotalPages(questionPage.getTotalPages());
-        response.setFirst(questionPage.isFirst());
-        response.setLast(questionPage.isLast());
-        response.setEmpty(questionPage.isEmpty());
+        return ResponseEntity.ok(convertToPageResponse(questionPage));
+    }
 
-        return ResponseEntity.ok(response);
+    @GetMapping("/tagged/{tag}/cursor")
+    public ResponseEntity<CursorPageResponse<QuestionResponse>> getQuestionsByTagByCursor(
+            @PathVariable String tag,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        CursorPageResponse<Question> questionPage = questionService.getQuestionsByTag(tag, cursor, size);
+        return ResponseEntity.ok(convertToCursorPageResponse(questionPage));
     }
 
     @GetMapping("/{id}/with-answers")
@@ -177,14 +203,22 @@ public class QuestionController {
             @PathVariable Long id,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedUser userDetails,
+            WebRequest request) {
         try {
-            questionService.incrementViewCount(id);
-            Question question = questionService.getQuestionById(id);
-            QuestionResponse questionResponse = convertToResponse(question);
+            String resource = "qa-p" + page + "s" + size;
+            if (ConditionalGet.isConditional(request)) {
+                String etag = ConditionalGet.etag(resource, questionService.getQuestionVersion(id), userDetails);
+                if (request.checkNotModified(etag)) {
+                    return ConditionalGet.notModified(etag);
+                }
+            }
 
-            // Get answers for this question
-            Page<Answer> answerPage = answerService.getAnswersByQuestionId(id, page, size);
+            QuestionPage questionPage = questionReadCoalescer.getQuestionPage(id, page, size);
+            viewCountBuffer.record(id);
+            QuestionResponse questionResponse = convertToResponse(questionPage.question());
+
+            Page<Answer> answerPage = questionPage.answers();
             PageResponse<AnswerResponse> answersResponse = new PageResponse<>();
             answersResponse.setContent(answerPage.getContent().stream()
                     .map(answer -> convertAnswerToResponse(answer, userDetails))
@@ -201,13 +235,43 @@ public class QuestionController {
             response.setQuestion(questionResponse);
             response.setAnswers(answersResponse);
 
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
+            String loadedVersion = QuestionService.versionOf(questionPage.question());
+            return ConditionalGet.ok(ConditionalGet.etag(resource, loadedVersion, userDetails), true, response);
+        } catch (ResourceNotFoundException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
-    private QuestionResponse convertToResponse(Question question) {
+    // Package-private for the JMH benchmarks
+    PageResponse<QuestionResponse> convertToPageResponse(Page<Question> questionPage) {
+        PageResponse<QuestionResponse> response = new PageResponse<>();
+        response.setContent(questionPage.getContent().stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList()));
+        response.setPage(questionPage.getNumber());
+        response.setSize(questionPage.getSize());
+        response.setTotalElements(questionPage.getTotalElements());
+        response.setTotalPages(questionPage.getTotalPages());
+        response.setFirst(questionPage.isFirst());
+        response.setLast(questionPage.isLast());
+        response.setEmpty(questionPage.isEmpty());
+        return response;
+    }
+
+    private CursorPageResponse<QuestionResponse> convertToCursorPageResponse(CursorPageResponse<Question> questionPage) {
+        CursorPageResponse<QuestionResponse> response = new CursorPageResponse<>();
+        response.setContent(questionPage.getContent().stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList()));
+        response.setSize(questionPage.getSize());
+        response.setNextCursor(questionPage.getNextCursor());
+        response.setPrevCursor(questionPage.getPrevCursor());
+        response.setHasNext(questionPage.isHasNext());
+        response.setHasPrevious(questionPage.isHasPrevious());
+        return response;
+    }
+
+    QuestionResponse convertToResponse(Question question) {
         QuestionResponse response = new QuestionResponse();
         response.setId(question.getId());
         response.setTitle(question.getTitle());
@@ -215,15 +279,14 @@ public class QuestionController {
         response.setAuthorUsername(question.getUser().getUsername());
         response.setCreatedAt(question.getCreatedAt());
         response.setUpdatedAt(question.getUpdatedAt());
-        response.setViewCount(question.getViewCount());
+        response.setViewCount(question.getViewCount() + (int) viewCountBuffer.getPending(question.getId()));
 
         // Safely handle tags to avoid lazy loading issues
         response.setTags(question.getTags().stream()
                 .map(tag -> tag.getName())
                 .collect(Collectors.toList()));
 
-        // Get answer count efficiently
-        response.setAnswerCount(questionService.getAnswerCountByQuestionId(question.getId()));
+        response.setAnswerCount((long) question.getAnswerCount());
 
         return response;
     }
@@ -240,7 +303,7 @@ public class QuestionController {
         response.setAccepted(answer.isAccepted());
         response.setUpvoteCount(answer.getUpvoteCount());
         response.setDownvoteCount(answer.getDownvoteCount());
-        response.setTotalVotes(answer.getUpvoteCount() - answer.getDownvoteCount());
+        response.setTotalVotes(answer.getScore());
 
         boolean isAuthor = currentUser != null &&
                           currentUser.getUsername().equals(answer.getUser().getUsername());
@@ -6,6 +6,7 @@ import com.devik.sage.service.TagService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -19,21 +20,34 @@ public class TagController {
     private final TagService tagService;
 
     @GetMapping
-    public ResponseEntity<List<TagResponse>> getAllTags() {
+    public ResponseEntity<List<TagResponse>> getAllTags(WebRequest request) {
+        if (ConditionalGet.isConditional(request)) {
+            String etag = ConditionalGet.etag("tags", tagService.getTagListVersion(), null);
+            if (request.checkNotModified(etag)) {
+                return ConditionalGet.notModified(etag);
+            }
+        }
+
         List<Tag> allTags = tagService.getAllTags();
         List<TagResponse> responses = allTags.stream()
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(responses);
+        return ConditionalGet.ok(ConditionalGet.etag("tags", TagService.versionOf(allTags), null), false, responses);
     }
 
     @GetMapping("/popular")
-    public ResponseEntity<List<TagResponse>> getPopularTags(@RequestParam(defaultValue = "10") int limit) {
+    public ResponseEntity<List<TagResponse>> getPopularTags(@RequestParam(defaultValue = "10") int limit,
+                                                            WebRequest request) {
         List<Tag> popularTags = tagService.getPopularTags(limit);
+        String etag = ConditionalGet.etag("tags-top" + limit, TagService.sliceVersionOf(popularTags), null);
+        if (request.checkNotModified(etag)) {
+            return ConditionalGet.notModified(etag);
+        }
+
         List<TagResponse> responses = popularTags.stream()
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(responses);
+        return ConditionalGet.ok(etag, false, responses);
     }
 
     @GetMapping("/search")
@@ -50,8 +64,7 @@ public class TagController {
         response.setId(tag.getId());
         response.setName(tag.getName());
         response.setDescription(tag.getDescription());
-        // Use the count from the service instead of accessing the lazy collection
-        response.setQuestionCount(tagService.getQuestionCountForTag(tag.getId()));
+        response.setQuestionCount(tag.getQuestionCount());
         return response;
     }
 }
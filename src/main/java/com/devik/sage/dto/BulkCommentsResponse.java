@@ -0,0 +1,21 @@
+package com.devik.sage.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class BulkCommentsResponse {
+    private CommentGroup question = new CommentGroup();
+    private Map<Long, CommentGroup> answers = new LinkedHashMap<>();
+
+    @Data
+    public static class CommentGroup {
+        private List<CommentResponse> comments = new ArrayList<>();
+        // Comments beyond the per-parent cap, for a "show N more" link
+        private long moreCount;
+    }
+}
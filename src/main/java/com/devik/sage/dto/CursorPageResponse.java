@@ -0,0 +1,15 @@
+package com.devik.sage.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CursorPageResponse<T> {
+    private List<T> content;
+    private int size;
+    private String nextCursor; // opaque, pass back as ?cursor= to get the following page
+    private String prevCursor; // opaque, pass back as ?cursor= to get the preceding page
+    private boolean hasNext;
+    private boolean hasPrevious;
+}
@@ -0,0 +1,43 @@
+package com.devik.sage.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/** One line of the NDJSON corpus export: a question with its tags, answers and comments. */
+@Data
+public class ExportedQuestion {
+    private Long id;
+    private String title;
+    private String body;
+    private String author;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private int score;
+    private int viewCount;
+    private List<String> tags = new ArrayList<>();
+    private List<Comment> comments = new ArrayList<>();
+    private List<Answer> answers = new ArrayList<>();
+
+    @Data
+    public static class Answer {
+        private Long id;
+        private String body;
+        private String author;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+        private boolean accepted;
+        private int score;
+        private List<Comment> comments = new ArrayList<>();
+    }
+
+    @Data
+    public static class Comment {
+        private Long id;
+        private String body;
+        private String author;
+        private LocalDateTime createdAt;
+    }
+}
@@ -0,0 +1,8 @@
+package com.devik.sage.dto;
+
+import lombok.Data;
+
+@Data
+public class VoteRequest {
+    private String vote; // "up", "down" or "none" to retract
+}
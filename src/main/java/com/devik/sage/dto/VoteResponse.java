@@ -0,0 +1,16 @@
+package com.devik.sage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VoteResponse {
+    private Long postId;
+    private int upvoteCount;
+    private int downvoteCount;
+    private int score;
+    private String userVote; // "up", "down" or "none"
+}
@@ -0,0 +1,46 @@
+package com.devik.sage.export;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Command-line export: with {@code sage.export.file} set, writes the NDJSON corpus export
+ * to that file on startup, gzip-compressed when the name ends in {@code .gz}.
+ */
+@Component
+@ConditionalOnProperty(name = "sage.export.file")
+@RequiredArgsConstructor
+@Slf4j
+public class CorpusExportRunner implements ApplicationRunner {
+
+    private final CorpusExporter corpusExporter;
+
+    @Value("${sage.export.file}")
+    private Path file;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        log.info("Exporting questions to {}", file);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            if (file.getFileName().toString().endsWith(".gz")) {
+                GZIPOutputStream gzip = new GZIPOutputStream(out, 1 << 16);
+                corpusExporter.export(gzip);
+                gzip.finish();
+            } else {
+                corpusExporter.export(out);
+            }
+        }
+    }
+}
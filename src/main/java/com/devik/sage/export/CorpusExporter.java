@@ -0,0 +1,210 @@
+package com.devik.sage.export;
+
+import com.devik.sage.dto.ExportedQuestion;
+import com.devik.sage.repository.AnswerRepository;
+import com.devik.sage.repository.CommentRepository;
+import com.devik.sage.repository.TagRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.LongFunction;
+
+/**
+ * Writes every question, with its tags, answers and comments, as one NDJSON line, all from
+ * one consistent snapshot. Questions are read in id order, one keyset chunk at a time, with
+ * answers, comments and tags loaded for the chunk by one IN query each. No cursor stays open
+ * across statements. Rows are plain projections rather than entities, so memory use stays
+ * flat whatever the corpus size.
+ * <p>
+ * On CockroachDB every chunk gets its own short read-only transaction, pinned with
+ * {@code AS OF SYSTEM TIME} to the time the export started. Where that isn't available
+ * (PostgreSQL), the chunks run in a single REPEATABLE READ read-only transaction instead,
+ * which holds one connection for the whole export.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CorpusExporter {
+
+    private static final String QUESTIONS = "SELECT q.id, q.title, q.body, u.username, q.createdAt, q.updatedAt, " +
+            "q.score, q.viewCount FROM Question q JOIN q.user u WHERE q.id > :afterId ORDER BY q.id";
+
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final AnswerRepository answerRepository;
+    private final CommentRepository commentRepository;
+    private final TagRepository tagRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${sage.export.chunk-size:500}")
+    private int chunkSize;
+
+    /** Streams the export to {@code out} without closing it; returns the number of questions written. */
+    public long export(OutputStream out) {
+        long started = System.currentTimeMillis();
+        long exported;
+        try {
+            exported = writeAll(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Exported {} questions in {} ms", exported, System.currentTimeMillis() - started);
+        return exported;
+    }
+
+    private long writeAll(OutputStream out) throws IOException {
+        SequenceWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(out);
+
+        String snapshot = snapshotTimestamp();
+        long exported;
+        if (snapshot != null) {
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(true);
+            // Loaded in a transaction, written outside it: a slow client never holds a connection
+            exported = writeChunks(writer, afterId -> tx.execute(status -> {
+                jdbcTemplate.execute("SET TRANSACTION AS OF SYSTEM TIME " + snapshot);
+                return loadChunk(afterId);
+            }));
+        } else {
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(true);
+            tx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+            exported = tx.execute(status -> {
+                try {
+                    return writeChunks(writer, this::loadChunk);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+
+        writer.close();
+        if (exported > 0) {
+            out.write('\n');
+        }
+        out.flush();
+        return exported;
+    }
+
+    private long writeChunks(SequenceWriter writer, LongFunction<List<ExportedQuestion>> chunks) throws IOException {
+        long exported = 0;
+        long afterId = Long.MIN_VALUE;
+        List<ExportedQuestion> chunk;
+        do {
+            chunk = chunks.apply(afterId);
+            for (ExportedQuestion question : chunk) {
+                writer.write(question);
+            }
+            writer.flush();
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1).getId();
+                exported += chunk.size();
+            }
+        } while (chunk.size() == chunkSize);
+        return exported;
+    }
+
+    /** The cluster's current time, or null where AS OF SYSTEM TIME isn't supported. */
+    private String snapshotTimestamp() {
+        try {
+            // Must stay within the cluster's GC TTL for the whole export
+            return jdbcTemplate.queryForObject("SELECT cluster_logical_timestamp()::STRING", String.class);
+        } catch (DataAccessException e) {
+            log.debug("No AS OF SYSTEM TIME support, exporting in one REPEATABLE READ transaction");
+            return null;
+        }
+    }
+
+    private List<ExportedQuestion> loadChunk(long afterId) {
+        List<ExportedQuestion> chunk = new ArrayList<>(chunkSize);
+        for (Object[] row : entityManager.createQuery(QUESTIONS, Object[].class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(chunkSize)
+                .getResultList()) {
+            chunk.add(toQuestion(row));
+        }
+        if (!chunk.isEmpty()) {
+            addChildren(chunk);
+        }
+        return chunk;
+    }
+
+    private void addChildren(List<ExportedQuestion> chunk) {
+        Map<Long, ExportedQuestion> questions = new HashMap<>();
+        chunk.forEach(question -> questions.put(question.getId(), question));
+
+        for (Object[] row : tagRepository.findNamesByQuestionIds(questions.keySet())) {
+            questions.get(((Number) row[0]).longValue()).getTags().add((String) row[1]);
+        }
+
+        Map<Long, ExportedQuestion.Answer> answers = new HashMap<>();
+        for (Object[] row : answerRepository.findExportRowsByQuestionIdIn(questions.keySet())) {
+            ExportedQuestion.Answer answer = toAnswer(row);
+            answers.put(answer.getId(), answer);
+            questions.get((Long) row[1]).getAnswers().add(answer);
+        }
+
+        for (Object[] row : commentRepository.findExportRowsByQuestionIdIn(questions.keySet())) {
+            questions.get((Long) row[1]).getComments().add(toComment(row));
+        }
+        if (!answers.isEmpty()) {
+            for (Object[] row : commentRepository.findExportRowsByAnswerIdIn(answers.keySet())) {
+                answers.get((Long) row[1]).getComments().add(toComment(row));
+            }
+        }
+    }
+
+    private static ExportedQuestion toQuestion(Object[] row) {
+        ExportedQuestion question = new ExportedQuestion();
+        question.setId((Long) row[0]);
+        question.setTitle((String) row[1]);
+        question.setBody((String) row[2]);
+        question.setAuthor((String) row[3]);
+        question.setCreatedAt((LocalDateTime) row[4]);
+        question.setUpdatedAt((LocalDateTime) row[5]);
+        question.setScore((Integer) row[6]);
+        question.setViewCount((Integer) row[7]);
+        return question;
+    }
+
+    private static ExportedQuestion.Answer toAnswer(Object[] row) {
+        ExportedQuestion.Answer answer = new ExportedQuestion.Answer();
+        answer.setId((Long) row[0]);
+        answer.setBody((String) row[2]);
+        answer.setAuthor((String) row[3]);
+        answer.setCreatedAt((LocalDateTime) row[4]);
+        answer.setUpdatedAt((LocalDateTime) row[5]);
+        answer.setAccepted((Boolean) row[6]);
+        answer.setScore((Integer) row[7]);
+        return answer;
+    }
+
+    private static ExportedQuestion.Comment toComment(Object[] row) {
+        ExportedQuestion.Comment comment = new ExportedQuestion.Comment();
+        comment.setId((Long) row[0]);
+        comment.setBody((String) row[2]);
+        comment.setAuthor((String) row[3]);
+        comment.setCreatedAt((LocalDateTime) row[4]);
+        return comment;
+    }
+}
@@ -0,0 +1,145 @@
+package com.devik.sage.importer;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps Stack Exchange dump rows (attribute maps) to the parameter arrays of the
+ * importer's insert statements.
+ */
+final class DumpImportRows {
+
+    private static final String QUESTION = "1";
+    private static final String ANSWER = "2";
+    private static final String UP_VOTE = "2";
+    private static final String DOWN_VOTE = "3";
+
+    // Imported accounts can't log in until a password is set; no BCrypt hash matches this
+    private static final String NO_PASSWORD = "!";
+
+    private DumpImportRows() {
+    }
+
+    static long id(Map<String, String> row) {
+        return Long.parseLong(row.get("Id"));
+    }
+
+    static boolean isQuestion(Map<String, String> row) {
+        return QUESTION.equals(row.get("PostTypeId"));
+    }
+
+    static boolean isQuestionOrAnswer(Map<String, String> row) {
+        return isQuestion(row) || ANSWER.equals(row.get("PostTypeId"));
+    }
+
+    static boolean isUpVote(Map<String, String> row) {
+        return UP_VOTE.equals(row.get("VoteTypeId"));
+    }
+
+    static boolean isUpOrDownVote(Map<String, String> row) {
+        return isUpVote(row) || DOWN_VOTE.equals(row.get("VoteTypeId"));
+    }
+
+    static Object[] user(Map<String, String> row) {
+        long id = id(row);
+        // Display names aren't unique in the dumps; the source id keeps username and email unique
+        String username = "se_" + id;
+        return new Object[]{
+                id,
+                username,
+                NO_PASSWORD,
+                username + "@import.invalid",
+                truncate(row.get("DisplayName"), 255),
+                row.get("AboutMe"),
+                truncate(row.get("Location"), 255),
+                truncate(row.get("WebsiteUrl"), 255),
+                intValue(row, "Reputation"),
+                intValue(row, "Views"),
+                dateTime(row, "CreationDate")
+        };
+    }
+
+    static Object[] tag(Map<String, String> row) {
+        return new Object[]{id(row), row.get("TagName"), intValue(row, "Count")};
+    }
+
+    static Object[] question(Map<String, String> row, long fallbackOwnerId, boolean scoreFromVotes) {
+        int score = scoreFromVotes ? 0 : intValue(row, "Score");
+        LocalDateTime created = dateTime(row, "CreationDate");
+        return new Object[]{
+                id(row),
+                truncate(row.get("Title"), 255),
+                row.get("Body"),
+                created,
+                updated(row, created),
+                owner(row, fallbackOwnerId),
+                Math.max(score, 0),
+                Math.max(-score, 0),
+                score,
+                intValue(row, "AnswerCount"),
+                intValue(row, "ViewCount"),
+                Math.max(score, 0),
+                Math.max(-score, 0)
+        };
+    }
+
+    static Object[] answer(Map<String, String> row, long fallbackOwnerId, boolean scoreFromVotes) {
+        int score = scoreFromVotes ? 0 : intValue(row, "Score");
+        LocalDateTime created = dateTime(row, "CreationDate");
+        return new Object[]{
+                id(row),
+                row.get("Body"),
+                created,
+                updated(row, created),
+                owner(row, fallbackOwnerId),
+                longValue(row, "ParentId"),
+                Math.max(score, 0),
+                Math.max(-score, 0),
+                score,
+                Math.max(score, 0),
+                Math.max(-score, 0)
+        };
+    }
+
+    static List<String> tagNames(Map<String, String> row) {
+        String tags = row.get("Tags");
+        if (tags == null) {
+            return List.of();
+        }
+        // Older dumps write "<java><spring>", newer ones "|java|spring|"
+        return Arrays.stream(tags.split("[<>|]+"))
+                .filter(name -> !name.isEmpty())
+                .toList();
+    }
+
+    static Long longValue(Map<String, String> row, String attribute) {
+        String value = row.get(attribute);
+        return value == null ? null : Long.parseLong(value);
+    }
+
+    private static int intValue(Map<String, String> row, String attribute) {
+        String value = row.get(attribute);
+        return value == null ? 0 : Integer.parseInt(value);
+    }
+
+    private static long owner(Map<String, String> row, long fallbackOwnerId) {
+        Long owner = longValue(row, "OwnerUserId");
+        return owner == null ? fallbackOwnerId : owner;
+    }
+
+    private static LocalDateTime updated(Map<String, String> row, LocalDateTime created) {
+        LocalDateTime edited = dateTime(row, "LastEditDate");
+        return edited == null ? created : edited;
+    }
+
+    private static LocalDateTime dateTime(Map<String, String> row, String attribute) {
+        String value = row.get(attribute);
+        return value == null ? null : LocalDateTime.parse(value);
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
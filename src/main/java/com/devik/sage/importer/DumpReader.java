@@ -0,0 +1,55 @@
+package com.devik.sage.importer;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streams the {@code <row .../>} elements of a Stack Exchange dump file with StAX. Only
+ * the current row's attributes are held in memory, whatever the file size.
+ */
+final class DumpReader {
+
+    private static final XMLInputFactory FACTORY = newFactory();
+
+    private DumpReader() {
+    }
+
+    static void forEachRow(Path file, Consumer<Map<String, String>> consumer) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            XMLStreamReader reader = FACTORY.createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT && "row".equals(reader.getLocalName())) {
+                        Map<String, String> row = new HashMap<>(reader.getAttributeCount() * 2);
+                        for (int i = 0; i < reader.getAttributeCount(); i++) {
+                            row.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+                        }
+                        consumer.accept(row);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed dump file " + file, e);
+        }
+    }
+
+    private static XMLInputFactory newFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // Dumps are plain data; never resolve DTDs or external entities
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
@@ -0,0 +1,229 @@
+package com.devik.sage.importer;
+
+import com.devik.sage.config.IdSequences;
+import com.devik.sage.service.CounterReconciliationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Imports a Stack Exchange data dump (Users.xml, Tags.xml, Posts.xml, Votes.xml) from
+ * {@code sage.import.dir}. Files are streamed with StAX and written with batched plain
+ * inserts, never through JPA entities. Each batch is committed together with its
+ * checkpoint, so a restarted import resumes after the last committed row. Dump ids are
+ * kept, so the references between files stay valid; the id sequences are moved past
+ * them at the end.
+ */
+@Component
+@ConditionalOnProperty(name = "sage.import.dir")
+@RequiredArgsConstructor
+@Slf4j
+public class StackExchangeImporter implements ApplicationRunner {
+
+    // Owner of posts whose author account was deleted, as in the dumps themselves
+    private static final long COMMUNITY_USER_ID = -1L;
+
+    private static final String INSERT_USER = "INSERT INTO users (id, username, password, email, display_name, bio, " +
+            "location, website, reputation, views_count, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT DO NOTHING";
+    private static final String INSERT_TAG = "INSERT INTO tags (id, name, created_at, question_count) " +
+            "VALUES (?, ?, now(), ?) ON CONFLICT DO NOTHING";
+    private static final String INSERT_QUESTION = "INSERT INTO questions (id, title, body, created_at, updated_at, " +
+            "user_id, upvote_count, downvote_count, score, answer_count, view_count, imported_upvotes, imported_downvotes) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+    private static final String INSERT_QUESTION_TAG = "INSERT INTO question_tags (question_id, tag_id) " +
+            "VALUES (?, ?) ON CONFLICT DO NOTHING";
+    private static final String INSERT_ACCEPTED = "INSERT INTO import_accepted_answers (answer_id) " +
+            "VALUES (?) ON CONFLICT DO NOTHING";
+    private static final String INSERT_ANSWER = "INSERT INTO answers (id, body, created_at, updated_at, accepted, " +
+            "user_id, question_id, upvote_count, downvote_count, score, imported_upvotes, imported_downvotes) " +
+            "VALUES (?, ?, ?, ?, false, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+    private static final String MARK_ACCEPTED = "UPDATE answers SET accepted = true WHERE accepted = false AND id IN " +
+            "(SELECT answer_id FROM import_accepted_answers WHERE answer_id BETWEEN ? AND ?)";
+    // Imported votes become both the live counters and the baseline reconciliation counts from
+    private static final String ADD_QUESTION_VOTES = "UPDATE questions SET upvote_count = upvote_count + ?, " +
+            "downvote_count = downvote_count + ?, score = score + ?, imported_upvotes = imported_upvotes + ?, " +
+            "imported_downvotes = imported_downvotes + ? WHERE id = ?";
+    private static final String ADD_ANSWER_VOTES = "UPDATE answers SET upvote_count = upvote_count + ?, " +
+            "downvote_count = downvote_count + ?, score = score + ?, imported_upvotes = imported_upvotes + ?, " +
+            "imported_downvotes = imported_downvotes + ? WHERE id = ?";
+    private static final String SAVE_CHECKPOINT = "INSERT INTO import_checkpoints " +
+            "(pass, last_row_id, rows_imported, completed, updated_at) VALUES (?, ?, ?, ?, now()) " +
+            "ON CONFLICT (pass) DO UPDATE SET last_row_id = excluded.last_row_id, " +
+            "rows_imported = excluded.rows_imported, completed = excluded.completed, updated_at = excluded.updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final IdSequences idSequences;
+    private final CounterReconciliationService counterReconciliationService;
+
+    @Value("${sage.import.dir}")
+    private Path dumpDir;
+
+    @Value("${sage.import.batch-size:1000}")
+    private int batchSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.currentTimeMillis();
+        log.info("Importing Stack Exchange dump from {}", dumpDir);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS import_accepted_answers (answer_id BIGINT PRIMARY KEY)");
+
+        // Users and tags are independent of each other; posts need both, votes need posts
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            CompletableFuture.allOf(
+                    CompletableFuture.runAsync(() -> runPass("users", "Users.xml", row -> true, this::writeUsers), pool),
+                    CompletableFuture.runAsync(() -> runPass("tags", "Tags.xml", row -> true, this::writeTags), pool)
+            ).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        Map<String, Long> tagIds = loadTagIds();
+        boolean hasVotes = Files.exists(dumpDir.resolve("Votes.xml"));
+        runPass("posts", "Posts.xml", DumpImportRows::isQuestionOrAnswer, rows -> writePosts(rows, tagIds, hasVotes));
+        runPass("votes", "Votes.xml", DumpImportRows::isUpOrDownVote, this::writeVotes);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS import_accepted_answers");
+
+        idSequences.alignAll();
+        counterReconciliationService.reconcileAll();
+        log.info("Stack Exchange import finished in {} s", (System.currentTimeMillis() - started) / 1000);
+    }
+
+    private void runPass(String pass, String fileName, Predicate<Map<String, String>> filter,
+                         Consumer<List<Map<String, String>>> writer) {
+        Path file = dumpDir.resolve(fileName);
+        if (!Files.exists(file)) {
+            log.info("Skipping {}: {} not found", pass, file);
+            return;
+        }
+        Map<String, Object> checkpoint = jdbcTemplate.queryForList(
+                "SELECT last_row_id, rows_imported, completed FROM import_checkpoints WHERE pass = ?", pass)
+                .stream().findFirst().orElse(Map.of());
+        if (Boolean.TRUE.equals(checkpoint.get("completed"))) {
+            log.info("Skipping {}: already imported", pass);
+            return;
+        }
+        long resumeAfter = checkpoint.isEmpty() ? Long.MIN_VALUE : ((Number) checkpoint.get("last_row_id")).longValue();
+        long[] imported = {checkpoint.isEmpty() ? 0 : ((Number) checkpoint.get("rows_imported")).longValue()};
+        long[] lastId = {resumeAfter};
+        log.info("Importing {} after row id {}", pass, resumeAfter);
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<Map<String, String>> batch = new ArrayList<>(batchSize);
+        Runnable flush = () -> {
+            tx.executeWithoutResult(status -> {
+                writer.accept(batch);
+                jdbcTemplate.update(SAVE_CHECKPOINT, pass, lastId[0], imported[0] + batch.size(), false);
+            });
+            imported[0] += batch.size();
+            batch.clear();
+        };
+
+        try {
+            DumpReader.forEachRow(file, row -> {
+                long id = DumpImportRows.id(row);
+                if (id <= resumeAfter || !filter.test(row)) {
+                    return;
+                }
+                batch.add(row);
+                lastId[0] = id;
+                if (batch.size() >= batchSize) {
+                    flush.run();
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!batch.isEmpty()) {
+            flush.run();
+        }
+        jdbcTemplate.update(SAVE_CHECKPOINT, pass, lastId[0], imported[0], true);
+        log.info("Imported {} rows for {}", imported[0], pass);
+    }
+
+    private void writeUsers(List<Map<String, String>> rows) {
+        jdbcTemplate.batchUpdate(INSERT_USER, rows.stream().map(DumpImportRows::user).toList());
+    }
+
+    private void writeTags(List<Map<String, String>> rows) {
+        jdbcTemplate.batchUpdate(INSERT_TAG, rows.stream().map(DumpImportRows::tag).toList());
+    }
+
+    private void writePosts(List<Map<String, String>> rows, Map<String, Long> tagIds, boolean scoreFromVotes) {
+        List<Object[]> questions = new ArrayList<>();
+        List<Object[]> questionTags = new ArrayList<>();
+        List<Object[]> accepted = new ArrayList<>();
+        List<Object[]> answers = new ArrayList<>();
+        for (Map<String, String> row : rows) {
+            if (DumpImportRows.isQuestion(row)) {
+                questions.add(DumpImportRows.question(row, COMMUNITY_USER_ID, scoreFromVotes));
+                long questionId = DumpImportRows.id(row);
+                for (String tagName : DumpImportRows.tagNames(row)) {
+                    Long tagId = tagIds.get(tagName);
+                    if (tagId != null) {
+                        questionTags.add(new Object[]{questionId, tagId});
+                    }
+                }
+                Long acceptedAnswerId = DumpImportRows.longValue(row, "AcceptedAnswerId");
+                if (acceptedAnswerId != null) {
+                    accepted.add(new Object[]{acceptedAnswerId});
+                }
+            } else {
+                answers.add(DumpImportRows.answer(row, COMMUNITY_USER_ID, scoreFromVotes));
+            }
+        }
+
+        // Parents before children: a batch can hold an answer to a question from the same batch
+        jdbcTemplate.batchUpdate(INSERT_QUESTION, questions);
+        jdbcTemplate.batchUpdate(INSERT_QUESTION_TAG, questionTags);
+        jdbcTemplate.batchUpdate(INSERT_ACCEPTED, accepted);
+        jdbcTemplate.batchUpdate(INSERT_ANSWER, answers);
+        if (!answers.isEmpty()) {
+            jdbcTemplate.update(MARK_ACCEPTED, DumpImportRows.id(rows.get(0)), DumpImportRows.id(rows.get(rows.size() - 1)));
+        }
+    }
+
+    private void writeVotes(List<Map<String, String>> rows) {
+        // The public dumps drop voter ids on up/down votes, so they land as post counters, not vote rows
+        Map<Long, int[]> perPost = new HashMap<>();
+        for (Map<String, String> row : rows) {
+            int[] counts = perPost.computeIfAbsent(DumpImportRows.longValue(row, "PostId"), id -> new int[2]);
+            counts[DumpImportRows.isUpVote(row) ? 0 : 1]++;
+        }
+        List<Object[]> updates = new ArrayList<>(perPost.size());
+        perPost.forEach((postId, counts) ->
+                updates.add(new Object[]{counts[0], counts[1], counts[0] - counts[1], counts[0], counts[1], postId}));
+
+        // Post ids are shared by questions and answers; each update matches in exactly one table
+        jdbcTemplate.batchUpdate(ADD_QUESTION_VOTES, updates);
+        jdbcTemplate.batchUpdate(ADD_ANSWER_VOTES, updates);
+    }
+
+    private Map<String, Long> loadTagIds() {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM tags", rs -> {
+            ids.put(rs.getString("name"), rs.getLong("id"));
+        });
+        return ids;
+    }
+}
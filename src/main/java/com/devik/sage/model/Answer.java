@@ -5,7 +5,6 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.Formula;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -15,11 +14,15 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "answers")
+@Table(name = "answers", indexes = {
+        @Index(name = "idx_answers_question_created_at_id", columnList = "question_id, created_at, id"),
+        @Index(name = "idx_answers_question_accepted_score", columnList = "question_id, accepted, score, created_at")
+})
 public class Answer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "answers_seq")
+    @SequenceGenerator(name = "answers_seq", sequenceName = "answers_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -43,12 +46,23 @@ public class Answer {
     @OneToMany(mappedBy = "answer", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Comment> comments = new HashSet<>();
 
-    @Formula("(SELECT COUNT(*) FROM votes v WHERE v.answer_id = id AND v.vote_type = 'UPVOTE')")
+    // Denormalized counters, maintained by atomic UPDATEs only (see Question)
+    @Column(name = "upvote_count", insertable = false, updatable = false, columnDefinition = "integer not null default 0")
     private int upvoteCount;
 
-    @Formula("(SELECT COUNT(*) FROM votes v WHERE v.answer_id = id AND v.vote_type = 'DOWNVOTE')")
+    @Column(name = "downvote_count", insertable = false, updatable = false, columnDefinition = "integer not null default 0")
     private int downvoteCount;
 
+    @Column(name = "score", insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private int score;
+
+    // Imported vote baseline (see Question)
+    @Column(name = "imported_upvotes", insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private int importedUpvotes;
+
+    @Column(name = "imported_downvotes", insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private int importedDownvotes;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
@@ -0,0 +1,42 @@
+package com.devik.sage.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a badge backfill run: the last user id whose chunk has been processed,
+ * so an interrupted run resumes where it stopped.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "badge_backfill_checkpoints")
+public class BadgeBackfillCheckpoint {
+
+    @Id
+    @Column(name = "badge_name", length = 100)
+    private String badgeName;
+
+    @Column(name = "last_user_id", nullable = false)
+    private Long lastUserId;
+
+    @Column(nullable = false)
+    private long awarded;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -8,7 +8,6 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
-import org.hibernate.annotations.Formula;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -21,11 +20,15 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "questions")
+@Table(name = "questions", indexes = {
+        @Index(name = "idx_questions_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_questions_score_created_at", columnList = "score, created_at")
+})
 public class Question {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "questions_seq")
+    @SequenceGenerator(name = "questions_seq", sequenceName = "questions_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -50,12 +53,27 @@ public class Question {
     @OneToMany(mappedBy = "question", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private Set<Comment> comments = new HashSet<>();
 
-    @Formula("(SELECT COUNT(*) FROM votes v WHERE v.question_id = id AND v.vote_type = 'UPVOTE')")
+    // Denormalized counters: written only by atomic UPDATEs, never by entity flushes,
+    // so an edit to a loaded question cannot overwrite a concurrent increment.
+    @Column(name = "upvote_count", insertable = false, updatable = false, columnDefinition = "integer not null default 0")
     private int upvoteCount;
 
-    @Formula("(SELECT COUNT(*) FROM votes v WHERE v.question_id = id AND v.vote_type = 'DOWNVOTE')")
+    @Column(name = "downvote_count", insertable = false, updatable = false, columnDefinition = "integer not null default 0")
     private int downvoteCount;
 
+    @Column(name = "score", insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private int score;
+
+    @Column(name = "answer_count", insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private int answerCount;
+
+    // Votes carried over from a dump import, which has no vote rows; reconciliation counts them as a baseline
+    @Column(name = "imported_upvotes", insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private int importedUpvotes;
+
+    @Column(name = "imported_downvotes", insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private int importedDownvotes;
+
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
             name = "question_tags",
@@ -64,8 +82,15 @@ public class Question {
     )
     private Set<Tag> tags = new HashSet<>();
 
+    // Flushed in batches by ViewCountBuffer, never written through the entity
+    @Column(name = "view_count", insertable = false, updatable = false, columnDefinition = "integer not null default 0")
     private int viewCount;
 
+    // Bumped with every change to the question's answers, votes or comments; together with
+    // updatedAt it versions everything the question page shows, for conditional GETs
+    @Column(name = "change_count", insertable = false, updatable = false, columnDefinition = "bigint not null default 0")
+    private long changeCount;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
@@ -77,10 +102,6 @@ public class Question {
         this.updatedAt = LocalDateTime.now();
     }
 
-    public void incrementViewCount() {
-        this.viewCount++;
-    }
-
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
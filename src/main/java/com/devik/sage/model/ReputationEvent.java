@@ -0,0 +1,61 @@
+package com.devik.sage.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry in the append-only reputation ledger. Written with a plain insert by the
+ * action that earns or loses points; ReputationAggregator folds unaggregated entries
+ * into users.reputation in the background.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "reputation_events", indexes = {
+        @Index(name = "idx_reputation_events_user", columnList = "user_id"),
+        @Index(name = "idx_reputation_events_pending", columnList = "aggregated, id")
+})
+public class ReputationEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reputation_events_seq")
+    @SequenceGenerator(name = "reputation_events_seq", sequenceName = "reputation_events_seq", allocationSize = 50)
+    private Long id;
+
+    // Plain ids rather than associations so writing an event never loads the user or post
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private int delta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private Reason reason;
+
+    @Column(name = "question_id")
+    private Long questionId;
+
+    @Column(name = "answer_id")
+    private Long answerId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private boolean aggregated;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public enum Reason {
+        QUESTION_VOTE, ANSWER_VOTE, ANSWER_ACCEPTED, ACCEPTING_ANSWER
+    }
+}
@@ -19,11 +19,14 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "tags")
+@Table(name = "tags", indexes = {
+        @Index(name = "idx_tags_question_count_name", columnList = "question_count DESC, name")
+})
 public class Tag {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tags_seq")
+    @SequenceGenerator(name = "tags_seq", sequenceName = "tags_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -34,6 +37,17 @@ public class Tag {
 
     private LocalDateTime createdAt;
 
+    // Tag statistics, maintained by atomic UPDATEs when questions are tagged or deleted
+    @Column(name = "question_count", insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private int questionCount;
+
+    @Column(name = "last_used_at", insertable = false, updatable = false)
+    private LocalDateTime lastUsedAt;
+
+    // Bumped whenever questionCount moves; summed over all tags it versions the tag list
+    @Column(name = "change_count", insertable = false, updatable = false, columnDefinition = "bigint not null default 0")
+    private long changeCount;
+
     @ManyToMany(mappedBy = "tags", fetch = FetchType.LAZY)
     private Set<Question> questions = new HashSet<>();
 
@@ -54,8 +68,4 @@ public class Tag {
     public int hashCode() {
         return Objects.hash(id);
     }
-
-    public int getQuestionCount() {
-        return questions.size();
-    }
 }
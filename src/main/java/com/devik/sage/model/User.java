@@ -27,7 +27,8 @@ import java.util.Set;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -58,9 +59,15 @@ public class User {
     @Column(name = "website")
     private String website;
 
-    @Column(name = "reputation", nullable = false)
+    // Baseline plus the aggregated ledger, applied by ReputationAggregator; never written by saving a loaded user
+    @Column(name = "reputation", nullable = false, updatable = false)
     private Integer reputation = 0;
 
+    // Reputation from before the ledger (or from a dump import), which has no ledger entries.
+    // Null until ReputationService seeds it; written only by that seeding update
+    @Column(name = "reputation_baseline", insertable = false, updatable = false)
+    private Integer reputationBaseline;
+
     @Column(name = "views_count", nullable = false)
     private Integer viewsCount = 0;
 
@@ -0,0 +1,47 @@
+package com.devik.sage.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-user activity counters that badge rules are evaluated against, so a badge check
+ * never has to count a user's posts. Rows are created and adjusted only by the upserts
+ * in UserStatsRepository.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "user_stats")
+public class UserStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "question_count", insertable = false, updatable = false,
+            columnDefinition = "integer not null default 0")
+    private int questionCount;
+
+    @Column(name = "answer_count", insertable = false, updatable = false,
+            columnDefinition = "integer not null default 0")
+    private int answerCount;
+
+    @Column(name = "comment_count", insertable = false, updatable = false,
+            columnDefinition = "integer not null default 0")
+    private int commentCount;
+
+    @Column(name = "upvotes_cast", insertable = false, updatable = false,
+            columnDefinition = "integer not null default 0")
+    private int upvotesCast;
+
+    @Column(name = "downvotes_cast", insertable = false, updatable = false,
+            columnDefinition = "integer not null default 0")
+    private int downvotesCast;
+
+    public UserStats(Long userId) {
+        this.userId = userId;
+    }
+}
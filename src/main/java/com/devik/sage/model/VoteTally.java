@@ -0,0 +1,53 @@
+package com.devik.sage.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Pending vote deltas for one post, spread over several shard rows so that a burst of
+ * votes on the same post does not serialize on a single row. Folded into the post's
+ * stored counters in the background by VoteTallyFolder.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "vote_tallies")
+@IdClass(VoteTally.Key.class)
+public class VoteTally {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "post_type", length = 16)
+    private PostType postType;
+
+    @Id
+    @Column(name = "post_id")
+    private Long postId;
+
+    @Id
+    private int shard;
+
+    @Column(nullable = false)
+    private int upvotes;
+
+    @Column(nullable = false)
+    private int downvotes;
+
+    public enum PostType {
+        QUESTION, ANSWER
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private PostType postType;
+        private Long postId;
+        private int shard;
+    }
+}
@@ -6,8 +6,14 @@ import com.devik.sage.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,5 +28,50 @@ public interface AnswerRepository extends JpaRepository<Answer, Long> {
     Optional<Answer> findByQuestionIdAndAcceptedTrue(Long questionId);
 
     int countByQuestionId(Long questionId);
-    List<Answer> findByQuestionIdOrderByAcceptedDescUpvoteCountDescCreatedAtDesc(Long questionId);
+
+    // Offset page without the count query; the total comes from questions.answer_count
+    @Query("SELECT a FROM Answer a JOIN FETCH a.user WHERE a.question.id = :questionId ORDER BY a.createdAt DESC, a.id DESC")
+    List<Answer> findPageWithUserByQuestionId(@Param("questionId") Long questionId, Pageable pageable);
+
+    // Keyset (seek) pagination over (createdAt, id); pass PageRequest.of(0, n) as a row limit
+    @Query("SELECT a FROM Answer a WHERE a.question.id = :questionId ORDER BY a.createdAt DESC, a.id DESC")
+    List<Answer> findKeysetFirstByQuestionId(@Param("questionId") Long questionId, Pageable limit);
+
+    @Query("SELECT a FROM Answer a WHERE a.question.id = :questionId AND " +
+           "(a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id)) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<Answer> findKeysetOlderThanByQuestionId(@Param("questionId") Long questionId, @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id, Pageable limit);
+
+    @Query("SELECT a FROM Answer a WHERE a.question.id = :questionId AND " +
+           "(a.createdAt > :createdAt OR (a.createdAt = :createdAt AND a.id > :id)) " +
+           "ORDER BY a.createdAt ASC, a.id ASC")
+    List<Answer> findKeysetNewerThanByQuestionId(@Param("questionId") Long questionId, @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id, Pageable limit);
+
+    // Counter reconciliation, walked in id order one chunk per transaction
+    @Query(value = "SELECT id FROM answers WHERE id > :afterId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE answers a SET upvote_count = c.up, downvote_count = c.down, score = c.up - c.down " +
+           "FROM (SELECT x.id, " +
+           // Imported votes have no rows, so they start from the imported baseline. Deltas still
+           // sitting in vote_tallies are folded in later, so leave them out here
+           "x.imported_upvotes + (SELECT COUNT(*) FROM votes v WHERE v.answer_id = x.id AND v.vote_type = 'UPVOTE') - " +
+           "COALESCE((SELECT SUM(t.upvotes) FROM vote_tallies t WHERE t.post_type = 'ANSWER' AND t.post_id = x.id), 0) AS up, " +
+           "x.imported_downvotes + (SELECT COUNT(*) FROM votes v WHERE v.answer_id = x.id AND v.vote_type = 'DOWNVOTE') - " +
+           "COALESCE((SELECT SUM(t.downvotes) FROM vote_tallies t WHERE t.post_type = 'ANSWER' AND t.post_id = x.id), 0) AS down " +
+           "FROM answers x WHERE x.id IN (:ids)) c " +
+           "WHERE a.id = c.id AND (a.upvote_count <> c.up OR a.downvote_count <> c.down OR a.score <> c.up - c.down)",
+           nativeQuery = true)
+    int reconcileCounters(@Param("ids") Collection<Long> ids);
+
+    List<Answer> findByQuestionIdOrderByAcceptedDescScoreDescCreatedAtDesc(Long questionId);
+
+    // Export projection: id, question id, body, author, createdAt, updatedAt, accepted, score
+    @Query("SELECT a.id, a.question.id, a.body, u.username, a.createdAt, a.updatedAt, a.accepted, a.score " +
+           "FROM Answer a JOIN a.user u WHERE a.question.id IN :questionIds ORDER BY a.createdAt, a.id")
+    List<Object[]> findExportRowsByQuestionIdIn(@Param("questionIds") Collection<Long> questionIds);
 }
@@ -0,0 +1,9 @@
+package com.devik.sage.repository;
+
+import com.devik.sage.model.BadgeBackfillCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BadgeBackfillCheckpointRepository extends JpaRepository<BadgeBackfillCheckpoint, String> {
+}
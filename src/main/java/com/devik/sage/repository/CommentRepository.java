@@ -5,8 +5,11 @@ import com.devik.sage.model.Question;
 import com.devik.sage.model.Answer;
 import com.devik.sage.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,4 +17,36 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByQuestionOrderByCreatedAtAsc(Question question);
     List<Comment> findByAnswerOrderByCreatedAtAsc(Answer answer);
     List<Comment> findByUserOrderByCreatedAtDesc(User user);
+
+    // First :limit comments per parent (the question, or one of the answers) plus each parent's total,
+    // as: id, body, user_id, username, created_at, updated_at, question_id, answer_id, total, and the
+    // question's change_count and updated_at. Each of :answerIds that belongs to the question also
+    // gives one row with only answer_id set. A question with nothing else gives one row with null
+    // comment columns, and a missing question gives no rows.
+    @Query(value = "SELECT c.id, c.body, c.user_id, u.username, c.created_at, c.updated_at, " +
+           "c.question_id, c.answer_id, c.total, q.change_count, q.updated_at AS question_updated_at " +
+           "FROM questions q LEFT JOIN (" +
+           "SELECT cm.id, cm.body, cm.user_id, cm.created_at, cm.updated_at, cm.question_id, cm.answer_id, " +
+           "ROW_NUMBER() OVER (PARTITION BY cm.question_id, cm.answer_id ORDER BY cm.created_at, cm.id) AS rn, " +
+           "COUNT(*) OVER (PARTITION BY cm.question_id, cm.answer_id) AS total " +
+           "FROM comments cm WHERE cm.question_id = :questionId OR cm.answer_id IN " +
+           "(SELECT a.id FROM answers a WHERE a.question_id = :questionId AND a.id IN (:answerIds)) " +
+           "UNION ALL " +
+           "SELECT NULL, NULL, NULL, NULL, NULL, NULL, a.id, 0, 0 " +
+           "FROM answers a WHERE a.question_id = :questionId AND a.id IN (:answerIds)) c " +
+           "ON c.rn <= :limit LEFT JOIN users u ON u.id = c.user_id " +
+           "WHERE q.id = :questionId ORDER BY c.created_at, c.id",
+           nativeQuery = true)
+    List<Object[]> findFirstPerParent(@Param("questionId") Long questionId,
+                                      @Param("answerIds") Collection<Long> answerIds,
+                                      @Param("limit") int limit);
+
+    // Export projections: id, parent id, body, author, createdAt
+    @Query("SELECT c.id, c.question.id, c.body, u.username, c.createdAt FROM Comment c JOIN c.user u " +
+           "WHERE c.question.id IN :questionIds ORDER BY c.createdAt, c.id")
+    List<Object[]> findExportRowsByQuestionIdIn(@Param("questionIds") Collection<Long> questionIds);
+
+    @Query("SELECT c.id, c.answer.id, c.body, u.username, c.createdAt FROM Comment c JOIN c.user u " +
+           "WHERE c.answer.id IN :answerIds ORDER BY c.createdAt, c.id")
+    List<Object[]> findExportRowsByAnswerIdIn(@Param("answerIds") Collection<Long> answerIds);
 }
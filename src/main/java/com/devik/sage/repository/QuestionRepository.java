@@ -6,15 +6,25 @@ import com.devik.sage.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface QuestionRepository extends JpaRepository<Question, Long> {
     Page<Question> findAllByOrderByCreatedAtDesc(Pageable pageable);
+
+    // Question page header: author and tags in the same statement
+    @Query("SELECT q FROM Question q JOIN FETCH q.user LEFT JOIN FETCH q.tags WHERE q.id = :id")
+    Optional<Question> findWithUserAndTagsById(@Param("id") Long id);
+
     Page<Question> findByUserOrderByCreatedAtDesc(User user, Pageable pageable);
     Page<Question> findByTagsContainsOrderByCreatedAtDesc(Tag tag, Pageable pageable);
 
@@ -33,7 +43,69 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
     @Query("SELECT q FROM Question q JOIN q.tags t WHERE LOWER(t.name) LIKE LOWER(CONCAT('%', :tagName, '%'))")
     Page<Question> findByTagNameContaining(@Param("tagName") String tagName, Pageable pageable);
 
+    // Keyset (seek) pagination over (createdAt, id); pass PageRequest.of(0, n) as a row limit
+    @Query("SELECT q FROM Question q ORDER BY q.createdAt DESC, q.id DESC")
+    List<Question> findKeysetFirst(Pageable limit);
+
+    @Query("SELECT q FROM Question q WHERE q.createdAt < :createdAt OR (q.createdAt = :createdAt AND q.id < :id) " +
+           "ORDER BY q.createdAt DESC, q.id DESC")
+    List<Question> findKeysetOlderThan(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable limit);
+
+    @Query("SELECT q FROM Question q WHERE q.createdAt > :createdAt OR (q.createdAt = :createdAt AND q.id > :id) " +
+           "ORDER BY q.createdAt ASC, q.id ASC")
+    List<Question> findKeysetNewerThan(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable limit);
+
+    @Query("SELECT q FROM Question q JOIN q.tags t WHERE t.name = :tagName ORDER BY q.createdAt DESC, q.id DESC")
+    List<Question> findKeysetFirstByTagName(@Param("tagName") String tagName, Pageable limit);
+
+    @Query("SELECT q FROM Question q JOIN q.tags t WHERE t.name = :tagName AND " +
+           "(q.createdAt < :createdAt OR (q.createdAt = :createdAt AND q.id < :id)) " +
+           "ORDER BY q.createdAt DESC, q.id DESC")
+    List<Question> findKeysetOlderThanByTagName(@Param("tagName") String tagName, @Param("createdAt") LocalDateTime createdAt,
+                                                @Param("id") Long id, Pageable limit);
+
+    @Query("SELECT q FROM Question q JOIN q.tags t WHERE t.name = :tagName AND " +
+           "(q.createdAt > :createdAt OR (q.createdAt = :createdAt AND q.id > :id)) " +
+           "ORDER BY q.createdAt ASC, q.id ASC")
+    List<Question> findKeysetNewerThanByTagName(@Param("tagName") String tagName, @Param("createdAt") LocalDateTime createdAt,
+                                                @Param("id") Long id, Pageable limit);
+
     // Add method to count answers without lazy loading
     @Query("SELECT COUNT(a) FROM Answer a WHERE a.question.id = :questionId")
     Long countAnswersByQuestionId(@Param("questionId") Long questionId);
+
+    @Modifying
+    @Query(value = "UPDATE questions SET answer_count = answer_count + :delta, change_count = change_count + 1 " +
+           "WHERE id = :questionId", nativeQuery = true)
+    int adjustAnswerCount(@Param("questionId") Long questionId, @Param("delta") int delta);
+
+    @Modifying
+    @Query(value = "UPDATE questions SET change_count = change_count + 1 WHERE id = :questionId", nativeQuery = true)
+    int recordChange(@Param("questionId") Long questionId);
+
+    // Conditional GETs: updatedAt and changeCount only, without loading the question
+    @Query("SELECT q.updatedAt, q.changeCount FROM Question q WHERE q.id = :id")
+    List<Object[]> findVersionById(@Param("id") Long id);
+
+    // Counter reconciliation, walked in id order one chunk per transaction
+    @Query(value = "SELECT id FROM questions WHERE id > :afterId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE questions q SET upvote_count = c.up, downvote_count = c.down, score = c.up - c.down, " +
+           "answer_count = c.answers, change_count = q.change_count + 1 " +
+           "FROM (SELECT x.id, " +
+           // Imported votes have no rows, so they start from the imported baseline. Deltas still
+           // sitting in vote_tallies are folded in later, so leave them out here
+           "x.imported_upvotes + (SELECT COUNT(*) FROM votes v WHERE v.question_id = x.id AND v.vote_type = 'UPVOTE') - " +
+           "COALESCE((SELECT SUM(t.upvotes) FROM vote_tallies t WHERE t.post_type = 'QUESTION' AND t.post_id = x.id), 0) AS up, " +
+           "x.imported_downvotes + (SELECT COUNT(*) FROM votes v WHERE v.question_id = x.id AND v.vote_type = 'DOWNVOTE') - " +
+           "COALESCE((SELECT SUM(t.downvotes) FROM vote_tallies t WHERE t.post_type = 'QUESTION' AND t.post_id = x.id), 0) AS down, " +
+           "(SELECT COUNT(*) FROM answers a WHERE a.question_id = x.id) AS answers " +
+           "FROM questions x WHERE x.id IN (:ids)) c " +
+           "WHERE q.id = c.id AND (q.upvote_count <> c.up OR q.downvote_count <> c.down " +
+           "OR q.score <> c.up - c.down OR q.answer_count <> c.answers)",
+           nativeQuery = true)
+    int reconcileCounters(@Param("ids") Collection<Long> ids);
 }
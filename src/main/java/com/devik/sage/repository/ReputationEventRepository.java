@@ -0,0 +1,29 @@
+package com.devik.sage.repository;
+
+import com.devik.sage.model.ReputationEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReputationEventRepository extends JpaRepository<ReputationEvent, Long> {
+
+    // SKIP LOCKED lets several aggregators share the backlog without waiting on each other
+    @Query(value = "SELECT id, user_id, delta FROM reputation_events WHERE aggregated = false " +
+           "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Object[]> lockPendingBatch(@Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "UPDATE reputation_events SET aggregated = true WHERE id IN (:ids)", nativeQuery = true)
+    int markAggregated(@Param("ids") Collection<Long> ids);
+
+    // Baseline plus every ledger entry, aggregated or not
+    @Query(value = "SELECT COALESCE((SELECT reputation_baseline FROM users WHERE id = :userId), 0) + " +
+           "COALESCE((SELECT SUM(delta) FROM reputation_events WHERE user_id = :userId), 0)", nativeQuery = true)
+    long computeReputation(@Param("userId") Long userId);
+}
@@ -1,27 +1,64 @@
 package com.devik.sage.repository;
 
 import com.devik.sage.model.Tag;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TagRepository extends JpaRepository<Tag, Long> {
     Optional<Tag> findByName(String name);
+
+    @Query("SELECT t.id, t.name FROM Tag t WHERE t.name IN :names")
+    List<Object[]> findIdsByNames(@Param("names") Collection<String> names);
+
+    @Query(value = "SELECT qt.question_id, t.name FROM question_tags qt JOIN tags t ON t.id = qt.tag_id " +
+           "WHERE qt.question_id IN (:questionIds) ORDER BY t.name", nativeQuery = true)
+    List<Object[]> findNamesByQuestionIds(@Param("questionIds") Collection<Long> questionIds);
     Optional<Tag> findByNameIgnoreCase(String name);
     List<Tag> findByNameContainingIgnoreCase(String name);
     boolean existsByNameIgnoreCase(String name);
 
-    @Query("SELECT t FROM Tag t ORDER BY SIZE(t.questions) DESC")
-    List<Tag> findPopularTags();
+    // Served from the maintained question_count column, no join aggregation. Tags no question
+    // uses any more keep their row but stay off the list; the range scan on
+    // idx_tags_question_count_name stops at the first such tag.
+    @Query("SELECT t FROM Tag t WHERE t.questionCount > 0 ORDER BY t.questionCount DESC, t.name ASC")
+    List<Tag> findUsedOrderByQuestionCountDesc(Pageable pageable);
+
+    @Modifying
+    @Query(value = "UPDATE tags SET question_count = question_count + 1, change_count = change_count + 1, " +
+           "last_used_at = :usedAt WHERE id IN (:tagIds)",
+           nativeQuery = true)
+    int recordTagged(@Param("tagIds") Collection<Long> tagIds, @Param("usedAt") LocalDateTime usedAt);
+
+    @Modifying
+    @Query(value = "UPDATE tags SET question_count = question_count - 1, change_count = change_count + 1 " +
+           "WHERE id IN (:tagIds)", nativeQuery = true)
+    int recordUntagged(@Param("tagIds") Collection<Long> tagIds);
+
+    // Version of the whole tag list for conditional GETs: new tags move the count, counter changes the sum
+    @Query(value = "SELECT COUNT(*), COALESCE(SUM(change_count), 0) FROM tags", nativeQuery = true)
+    List<Object[]> findListVersion();
 
-    @Query(value = "SELECT t.* FROM tags t JOIN question_tags qt ON t.id = qt.tag_id " +
-           "GROUP BY t.id ORDER BY COUNT(qt.question_id) DESC LIMIT ?1", nativeQuery = true)
-    List<Tag> findTopTags(int limit);
+    // Counter reconciliation, walked in id order one chunk per transaction
+    @Query(value = "SELECT id FROM tags WHERE id > :afterId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
 
-    @Query(value = "SELECT COUNT(qt.question_id) FROM question_tags qt WHERE qt.tag_id = ?1", nativeQuery = true)
-    Integer countQuestionsByTagId(Long tagId);
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE tags t SET question_count = c.questions, change_count = t.change_count + 1 " +
+           "FROM (SELECT x.id, (SELECT COUNT(*) FROM question_tags qt WHERE qt.tag_id = x.id) AS questions " +
+           "FROM tags x WHERE x.id IN (:ids)) c " +
+           "WHERE t.id = c.id AND t.question_count <> c.questions",
+           nativeQuery = true)
+    int reconcileCounters(@Param("ids") Collection<Long> ids);
 }
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,4 +24,7 @@ public interface UserBadgeRepository extends JpaRepository<UserBadge, Long> {
 
     @Query("SELECT COUNT(ub) FROM UserBadge ub WHERE ub.user = :user AND ub.badge.type = :badgeType")
     Long countByUserAndBadgeType(@Param("user") User user, @Param("badgeType") Badge.BadgeType badgeType);
+
+    @Query("SELECT ub.user.id, ub.badge.id FROM UserBadge ub WHERE ub.user.id IN :userIds")
+    List<Object[]> findBadgeIdsByUserIds(@Param("userIds") Collection<Long> userIds);
 }
@@ -2,10 +2,14 @@ package com.devik.sage.repository;
 
 import com.devik.sage.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -20,4 +24,30 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("SELECT COUNT(a) FROM Answer a WHERE a.user.id = :userId")
     long countAnswersByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT u.id, u.reputation FROM User u WHERE u.id IN :ids")
+    List<Object[]> findReputationsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "SELECT id FROM users WHERE reputation_baseline IS NULL AND id > :afterId ORDER BY id LIMIT :limit",
+           nativeQuery = true)
+    List<Long> findIdsWithoutReputationBaselineAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    // Freezes whatever users.reputation holds beyond the aggregated ledger as the user's baseline.
+    // Aggregation updates reputation and marks events in one transaction, so one statement sees both
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE users u SET reputation_baseline = u.reputation - COALESCE((SELECT SUM(e.delta) " +
+           "FROM reputation_events e WHERE e.user_id = u.id AND e.aggregated), 0) " +
+           "WHERE u.id IN (:ids) AND u.reputation_baseline IS NULL", nativeQuery = true)
+    int seedReputationBaselines(@Param("ids") Collection<Long> ids);
+
+    // Counter reconciliation, walked in id order one chunk per transaction
+    @Query(value = "SELECT id FROM users WHERE id > :afterId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    // Users from before user_stats existed, which have no row until their next activity
+    @Query(value = "SELECT u.id FROM users u WHERE u.id > :afterId AND NOT EXISTS " +
+           "(SELECT 1 FROM user_stats s WHERE s.user_id = u.id) ORDER BY u.id LIMIT :limit",
+           nativeQuery = true)
+    List<Long> findIdsWithoutStatsAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
 }
@@ -0,0 +1,50 @@
+package com.devik.sage.repository;
+
+import com.devik.sage.model.UserStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+@Repository
+public interface UserStatsRepository extends JpaRepository<UserStats, Long> {
+
+    // Single-statement upsert, so the first activity for a user needs no separate insert
+    @Modifying
+    @Query(value = "INSERT INTO user_stats (user_id, question_count, answer_count, comment_count, upvotes_cast, downvotes_cast) " +
+           "VALUES (:userId, :questions, :answers, :comments, :upvotes, :downvotes) " +
+           "ON CONFLICT (user_id) DO UPDATE SET " +
+           "question_count = user_stats.question_count + excluded.question_count, " +
+           "answer_count = user_stats.answer_count + excluded.answer_count, " +
+           "comment_count = user_stats.comment_count + excluded.comment_count, " +
+           "upvotes_cast = user_stats.upvotes_cast + excluded.upvotes_cast, " +
+           "downvotes_cast = user_stats.downvotes_cast + excluded.downvotes_cast",
+           nativeQuery = true)
+    int adjust(@Param("userId") Long userId, @Param("questions") int questions, @Param("answers") int answers,
+               @Param("comments") int comments, @Param("upvotes") int upvotes, @Param("downvotes") int downvotes);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO user_stats (user_id, question_count, answer_count, comment_count, upvotes_cast, downvotes_cast) " +
+           "SELECT u.id, " +
+           "(SELECT COUNT(*) FROM questions q WHERE q.user_id = u.id), " +
+           "(SELECT COUNT(*) FROM answers a WHERE a.user_id = u.id), " +
+           "(SELECT COUNT(*) FROM comments c WHERE c.user_id = u.id), " +
+           "(SELECT COUNT(*) FROM votes v WHERE v.user_id = u.id AND v.vote_type = 'UPVOTE'), " +
+           "(SELECT COUNT(*) FROM votes v WHERE v.user_id = u.id AND v.vote_type = 'DOWNVOTE') " +
+           "FROM users u WHERE u.id IN (:ids) " +
+           "ON CONFLICT (user_id) DO UPDATE SET " +
+           "question_count = excluded.question_count, answer_count = excluded.answer_count, " +
+           "comment_count = excluded.comment_count, upvotes_cast = excluded.upvotes_cast, " +
+           "downvotes_cast = excluded.downvotes_cast " +
+           "WHERE (user_stats.question_count, user_stats.answer_count, user_stats.comment_count, " +
+           "user_stats.upvotes_cast, user_stats.downvotes_cast) IS DISTINCT FROM " +
+           "(excluded.question_count, excluded.answer_count, excluded.comment_count, " +
+           "excluded.upvotes_cast, excluded.downvotes_cast)",
+           nativeQuery = true)
+    int reconcileCounters(@Param("ids") Collection<Long> ids);
+}
@@ -13,6 +13,8 @@ import java.util.Optional;
 public interface VoteRepository extends JpaRepository<Vote, Long> {
     Optional<Vote> findByUserAndQuestion(User user, Question question);
     Optional<Vote> findByUserAndAnswer(User user, Answer answer);
+    Optional<Vote> findByUserIdAndQuestionId(Long userId, Long questionId);
+    Optional<Vote> findByUserIdAndAnswerId(Long userId, Long answerId);
 
     int countByQuestionAndVoteType(Question question, Vote.VoteType voteType);
     int countByAnswerAndVoteType(Answer answer, Vote.VoteType voteType);
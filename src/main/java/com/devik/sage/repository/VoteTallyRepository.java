@@ -0,0 +1,30 @@
+package com.devik.sage.repository;
+
+import com.devik.sage.model.VoteTally;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface VoteTallyRepository extends JpaRepository<VoteTally, VoteTally.Key> {
+
+    @Modifying
+    @Query(value = "INSERT INTO vote_tallies (post_type, post_id, shard, upvotes, downvotes) " +
+           "VALUES (:postType, :postId, :shard, :upvotes, :downvotes) " +
+           "ON CONFLICT (post_type, post_id, shard) DO UPDATE SET " +
+           "upvotes = vote_tallies.upvotes + excluded.upvotes, downvotes = vote_tallies.downvotes + excluded.downvotes",
+           nativeQuery = true)
+    void add(@Param("postType") String postType, @Param("postId") Long postId, @Param("shard") int shard,
+             @Param("upvotes") int upvotes, @Param("downvotes") int downvotes);
+
+    @Query(value = "SELECT COALESCE(SUM(upvotes), 0), COALESCE(SUM(downvotes), 0) FROM vote_tallies " +
+           "WHERE post_type = :postType AND post_id = :postId", nativeQuery = true)
+    List<Object[]> sumPending(@Param("postType") String postType, @Param("postId") Long postId);
+
+    @Query(value = "SELECT post_type, post_id, shard, upvotes, downvotes FROM vote_tallies LIMIT :limit", nativeQuery = true)
+    List<Object[]> findBatch(@Param("limit") int limit);
+}
@@ -0,0 +1,53 @@
+package com.devik.sage.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded in-memory deny list of revoked token ids (jti). Entries only need to live until
+ * the token would have expired anyway, so the list stays small. It is per instance:
+ * revocations are not shared across nodes.
+ */
+@Component
+@Slf4j
+public class TokenDenyList {
+
+    private final ConcurrentHashMap<String, Instant> revoked = new ConcurrentHashMap<>();
+
+    @Value("${jwt.deny-list.max-size:100000}")
+    private int maxSize;
+
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (tokenId == null || expiresAt.isBefore(Instant.now())) {
+            return;
+        }
+        if (revoked.size() >= maxSize) {
+            purgeExpired();
+        }
+        if (revoked.size() >= maxSize) {
+            // Still full: give up the entry closest to expiring on its own
+            revoked.entrySet().stream()
+                    .min(Map.Entry.comparingByValue(Comparator.naturalOrder()))
+                    .ifPresent(oldest -> revoked.remove(oldest.getKey()));
+            log.warn("Token deny list is full ({} entries), evicted the entry closest to expiry", maxSize);
+        }
+        revoked.put(tokenId, expiresAt);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && revoked.containsKey(tokenId);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.deny-list.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        revoked.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+    }
+}
@@ -1,9 +1,11 @@
 package com.devik.sage.service;
 
+import com.devik.sage.dto.CursorPageResponse;
 import com.devik.sage.model.Answer;
 import com.devik.sage.model.Question;
 import com.devik.sage.model.User;
 import com.devik.sage.repository.AnswerRepository;
+import com.devik.sage.repository.QuestionRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -21,12 +23,21 @@ public class AnswerService {
 
     private final AnswerRepository answerRepository;
     private final QuestionService questionService;
+    private final QuestionRepository questionRepository;
+    private final UserStatsService userStatsService;
 
     public Page<Answer> getAnswersByQuestionId(Long questionId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
         return answerRepository.findByQuestionId(questionId, pageable);
     }
 
+    public CursorPageResponse<Answer> getAnswersByQuestionId(Long questionId, String cursor, int size) {
+        return KeysetPages.fetch(cursor, size, Answer::getCreatedAt, Answer::getId,
+                limit -> answerRepository.findKeysetFirstByQuestionId(questionId, limit),
+                (createdAt, id, limit) -> answerRepository.findKeysetOlderThanByQuestionId(questionId, createdAt, id, limit),
+                (createdAt, id, limit) -> answerRepository.findKeysetNewerThanByQuestionId(questionId, createdAt, id, limit));
+    }
+
     public Answer getAnswerById(Long id) {
         return answerRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Answer not found"));
@@ -43,7 +54,10 @@ public class AnswerService {
         answer.setUpdatedAt(LocalDateTime.now());
         answer.setAccepted(false);
 
-        return answerRepository.save(answer);
+        Answer saved = answerRepository.save(answer);
+        questionRepository.adjustAnswerCount(questionId, 1);
+        userStatsService.answerPosted(user.getId());
+        return saved;
     }
 
     public Answer updateAnswer(Long id, String content, User user) {
@@ -56,6 +70,7 @@ public class AnswerService {
         existing.setBody(content);
         existing.setUpdatedAt(LocalDateTime.now());
 
+        questionRepository.recordChange(existing.getQuestion().getId());
         return answerRepository.save(existing);
     }
 
@@ -67,6 +82,8 @@ public class AnswerService {
         }
 
         answerRepository.delete(existing);
+        questionRepository.adjustAnswerCount(existing.getQuestion().getId(), -1);
+        userStatsService.answerDeleted(user.getId());
     }
 
     public Answer acceptAnswer(Long id, User user) {
@@ -88,6 +105,7 @@ public class AnswerService {
         // Accept this answer
         answer.setAccepted(true);
         answer.setUpdatedAt(LocalDateTime.now());
+        questionRepository.recordChange(question.getId());
 
         return answerRepository.save(answer);
     }
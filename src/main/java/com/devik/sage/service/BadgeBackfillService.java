@@ -0,0 +1,150 @@
+package com.devik.sage.service;
+
+import com.devik.sage.model.Badge;
+import com.devik.sage.model.BadgeBackfillCheckpoint;
+import com.devik.sage.repository.BadgeBackfillCheckpointRepository;
+import com.devik.sage.repository.BadgeRepository;
+import com.devik.sage.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Awards one badge to every qualifying user with set-based SQL instead of evaluating users
+ * one by one. Users are walked in id chunks; each chunk is a single
+ * {@code INSERT ... SELECT} anti-joined against user_badges and committed on its own, and
+ * progress is checkpointed so an interrupted run resumes where it stopped.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ManagedResource(objectName = "com.devik.sage:type=BadgeBackfillService")
+public class BadgeBackfillService {
+
+    private record Rule(String reason, String candidatesSql) {
+    }
+
+    // Each query selects qualifying user_id values in the (:fromId, :toId] range
+    private static final Map<String, Rule> RULES = Map.ofEntries(
+            Map.entry("Student", statsRule("Asked first question", "question_count >= 1")),
+            Map.entry("Inquisitive", statsRule("Asked 10 questions", "question_count >= 10")),
+            Map.entry("Socratic", statsRule("Asked 50 questions", "question_count >= 50")),
+            Map.entry("Teacher", statsRule("Answered first question", "answer_count >= 1")),
+            Map.entry("Enlightened", statsRule("Answered 10 questions", "answer_count >= 10")),
+            Map.entry("Guru", statsRule("Answered 50 questions", "answer_count >= 50")),
+            Map.entry("Commentator", statsRule("Left 10 comments", "comment_count >= 10")),
+            Map.entry("Supporter", statsRule("Cast first upvote", "upvotes_cast >= 1")),
+            Map.entry("Critic", statsRule("Cast first downvote", "downvotes_cast >= 1")),
+            Map.entry("Trusted", reputationRule("Reached 100 reputation", 100)),
+            Map.entry("Established", reputationRule("Reached 500 reputation", 500)),
+            Map.entry("Notable", reputationRule("Reached 1000 reputation", 1000)),
+            Map.entry("Famous", reputationRule("Reached 5000 reputation", 5000)),
+            Map.entry("Nice Question", postRule("Question score of 10 or more", "questions", "score >= 10")),
+            Map.entry("Good Question", postRule("Question score of 25 or more", "questions", "score >= 25")),
+            Map.entry("Great Question", postRule("Question score of 100 or more", "questions", "score >= 100")),
+            Map.entry("Famous Question", postRule("Question with 10,000 views", "questions", "view_count >= 10000")),
+            Map.entry("Nice Answer", postRule("Answer score of 10 or more", "answers", "score >= 10")),
+            Map.entry("Good Answer", postRule("Answer score of 25 or more", "answers", "score >= 25")),
+            Map.entry("Great Answer", postRule("Answer score of 100 or more", "answers", "score >= 100")));
+
+    private static final String AWARD_SQL = "INSERT INTO user_badges (id, user_id, badge_id, earned_date, reason) " +
+            "SELECT nextval('user_badges_seq'), c.user_id, :badgeId, now(), :reason FROM (%s) c " +
+            "WHERE NOT EXISTS (SELECT 1 FROM user_badges ub WHERE ub.user_id = c.user_id AND ub.badge_id = :badgeId) " +
+            "ON CONFLICT (user_id, badge_id) DO NOTHING";
+
+    private final BadgeRepository badgeRepository;
+    private final UserRepository userRepository;
+    private final BadgeBackfillCheckpointRepository checkpointRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${sage.badges.backfill-chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${sage.badges.backfill-pause-ms:100}")
+    private long pauseMillis;
+
+    @Value("${sage.badges.backfill-on-startup:}")
+    private List<String> backfillOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (backfillOnStartup.isEmpty()) {
+            return;
+        }
+        // Off the startup thread: a backfill over a large users table can take a while
+        Thread.ofPlatform().name("badge-backfill").start(() -> backfillOnStartup.forEach(this::backfill));
+    }
+
+    @ManagedOperation(description = "Award a badge to every qualifying user, resuming from the last checkpoint")
+    public long backfill(String badgeName) {
+        Rule rule = RULES.get(badgeName);
+        if (rule == null) {
+            throw new IllegalArgumentException("No backfill rule for badge: " + badgeName);
+        }
+        Badge badge = badgeRepository.findByNameAndIsActiveTrue(badgeName)
+                .orElseThrow(() -> new IllegalArgumentException("Badge not found or inactive: " + badgeName));
+
+        BadgeBackfillCheckpoint checkpoint = checkpointRepository.findById(badgeName)
+                .filter(c -> !c.isCompleted())
+                .orElseGet(() -> new BadgeBackfillCheckpoint(badgeName, Long.MIN_VALUE, 0, false, null));
+        log.info("Backfilling badge {} from user id {}", badgeName, checkpoint.getLastUserId());
+
+        String sql = AWARD_SQL.formatted(rule.candidatesSql());
+        List<Long> ids = userRepository.findIdsAfter(checkpoint.getLastUserId(), chunkSize);
+        while (!ids.isEmpty()) {
+            Long toId = ids.get(ids.size() - 1);
+            int awarded = jdbcTemplate.update(sql, new MapSqlParameterSource()
+                    .addValue("badgeId", badge.getId())
+                    .addValue("reason", rule.reason())
+                    .addValue("fromId", checkpoint.getLastUserId())
+                    .addValue("toId", toId));
+
+            checkpoint.setLastUserId(toId);
+            checkpoint.setAwarded(checkpoint.getAwarded() + awarded);
+            checkpoint = checkpointRepository.save(checkpoint);
+
+            ids = userRepository.findIdsAfter(toId, chunkSize);
+            pause();
+        }
+
+        checkpoint.setCompleted(true);
+        checkpointRepository.save(checkpoint);
+        log.info("Backfill of badge {} complete, {} awarded", badgeName, checkpoint.getAwarded());
+        return checkpoint.getAwarded();
+    }
+
+    private void pause() {
+        // Leave room between chunks for regular traffic
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Badge backfill interrupted", e);
+        }
+    }
+
+    private static Rule statsRule(String reason, String condition) {
+        return new Rule(reason, "SELECT s.user_id FROM user_stats s " +
+                "WHERE s.user_id > :fromId AND s.user_id <= :toId AND s." + condition);
+    }
+
+    private static Rule reputationRule(String reason, int threshold) {
+        return new Rule(reason, "SELECT u.id AS user_id FROM users u " +
+                "WHERE u.id > :fromId AND u.id <= :toId AND u.reputation >= " + threshold);
+    }
+
+    private static Rule postRule(String reason, String table, String condition) {
+        return new Rule(reason, "SELECT DISTINCT p.user_id FROM " + table + " p " +
+                "WHERE p.user_id > :fromId AND p.user_id <= :toId AND p." + condition);
+    }
+}
@@ -3,23 +3,97 @@ package com.devik.sage.service;
 import com.devik.sage.model.Badge;
 import com.devik.sage.model.User;
 import com.devik.sage.model.UserBadge;
+import com.devik.sage.model.UserStats;
 import com.devik.sage.repository.BadgeRepository;
 import com.devik.sage.repository.UserBadgeRepository;
+import com.devik.sage.repository.UserRepository;
+import com.devik.sage.repository.UserStatsRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.List;
-import java.util.Optional;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
 
+/**
+ * Awards badges from the per-user counters in {@link UserStats}. Actions queue a check
+ * for the trigger they affect; a background pass evaluates only the rules registered for
+ * those triggers, with a fixed number of queries per batch of users, and inserts any new
+ * awards in one batch.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class BadgeService {
+public class BadgeService implements MeterBinder {
+
+    public enum Trigger {
+        QUESTION_POSTED, ANSWER_POSTED, COMMENT_POSTED, VOTE_CAST, REPUTATION_CHANGED
+    }
+
+    private record Facts(UserStats stats, int reputation) {
+    }
+
+    private record Rule(String badgeName, String reason, ToIntFunction<Facts> metric, int threshold) {
+    }
+
+    private static final Map<Trigger, List<Rule>> RULES = new EnumMap<>(Trigger.class);
+
+    static {
+        RULES.put(Trigger.QUESTION_POSTED, List.of(
+                new Rule("Student", "Asked first question", f -> f.stats().getQuestionCount(), 1),
+                new Rule("Inquisitive", "Asked 10 questions", f -> f.stats().getQuestionCount(), 10),
+                new Rule("Socratic", "Asked 50 questions", f -> f.stats().getQuestionCount(), 50)));
+        RULES.put(Trigger.ANSWER_POSTED, List.of(
+                new Rule("Teacher", "Answered first question", f -> f.stats().getAnswerCount(), 1),
+                new Rule("Enlightened", "Answered 10 questions", f -> f.stats().getAnswerCount(), 10),
+                new Rule("Guru", "Answered 50 questions", f -> f.stats().getAnswerCount(), 50)));
+        RULES.put(Trigger.COMMENT_POSTED, List.of(
+                new Rule("Commentator", "Left 10 comments", f -> f.stats().getCommentCount(), 10)));
+        RULES.put(Trigger.VOTE_CAST, List.of(
+                new Rule("Supporter", "Cast first upvote", f -> f.stats().getUpvotesCast(), 1),
+                new Rule("Critic", "Cast first downvote", f -> f.stats().getDownvotesCast(), 1)));
+        RULES.put(Trigger.REPUTATION_CHANGED, List.of(
+                new Rule("Trusted", "Reached 100 reputation", Facts::reputation, 100),
+                new Rule("Established", "Reached 500 reputation", Facts::reputation, 500),
+                new Rule("Notable", "Reached 1000 reputation", Facts::reputation, 1000),
+                new Rule("Famous", "Reached 5000 reputation", Facts::reputation, 5000)));
+    }
+
+    // The unique (user_id, badge_id) constraint makes a racing or repeated award a no-op
+    private static final String AWARD_SQL = "INSERT INTO user_badges (id, user_id, badge_id, earned_date, reason) " +
+            "VALUES (nextval('user_badges_seq'), ?, ?, ?, ?) ON CONFLICT (user_id, badge_id) DO NOTHING";
 
     private final BadgeRepository badgeRepository;
     private final UserBadgeRepository userBadgeRepository;
+    private final UserStatsRepository userStatsRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Triggers waiting to be evaluated, merged per user so a burst of activity is checked once
+    private final ConcurrentHashMap<Long, EnumSet<Trigger>> pending = new ConcurrentHashMap<>();
+
+    private volatile Map<String, Long> badgeIdsByName;
+
+    private final LongAdder awardCount = new LongAdder();
+
+    @Value("${sage.badges.award-batch-size:500}")
+    private int batchSize;
 
     @Transactional(readOnly = true)
     public List<Badge> getAllActiveBadges() {
@@ -32,30 +106,19 @@ public class BadgeService {
     }
 
     @Transactional
-    public UserBadge awardBadge(User user, String badgeName, String reason) {
-        Optional<Badge> badgeOpt = badgeRepository.findByNameAndIsActiveTrue(badgeName);
-        if (badgeOpt.isEmpty()) {
+    public boolean awardBadge(Long userId, String badgeName, String reason) {
+        Long badgeId = badgeIds().get(badgeName);
+        if (badgeId == null) {
             log.warn("Badge not found: {}", badgeName);
-            return null;
+            return false;
         }
 
-        Badge badge = badgeOpt.get();
-
-        // Check if user already has this badge
-        if (userBadgeRepository.existsByUserAndBadge(user, badge)) {
-            log.info("User {} already has badge {}", user.getUsername(), badgeName);
-            return null;
+        boolean awarded = jdbcTemplate.update(AWARD_SQL, userId, badgeId, Timestamp.valueOf(LocalDateTime.now()), reason) > 0;
+        if (awarded) {
+            awardCount.increment();
+            log.info("Awarded badge {} to user {}", badgeName, userId);
         }
-
-        UserBadge userBadge = new UserBadge();
-        userBadge.setUser(user);
-        userBadge.setBadge(badge);
-        userBadge.setReason(reason);
-
-        UserBadge saved = userBadgeRepository.save(userBadge);
-        log.info("Awarded badge {} to user {}", badgeName, user.getUsername());
-
-        return saved;
+        return awarded;
     }
 
     @Transactional(readOnly = true)
@@ -63,56 +126,134 @@ public class BadgeService {
         return userBadgeRepository.countByUserAndBadgeType(user, type);
     }
 
-    @Transactional
-    public void checkAndAwardBadges(User user) {
-        // Check for various badge criteria
-        checkQuestionBadges(user);
-        checkAnswerBadges(user);
-        checkReputationBadges(user);
+    /**
+     * Queues evaluation of the rules affected by {@code trigger}. Inside a transaction the
+     * check is queued only once it commits, so the rules see the updated counters.
+     */
+    public void queueCheck(Long userId, Trigger trigger) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(userId, EnumSet.of(trigger));
+                }
+            });
+        } else {
+            enqueue(userId, EnumSet.of(trigger));
+        }
     }
 
-    private void checkQuestionBadges(User user) {
-        int questionCount = user.getQuestions().size();
+    public void queueFullCheck(Long userId) {
+        enqueue(userId, EnumSet.allOf(Trigger.class));
+    }
 
-        if (questionCount >= 1) {
-            awardBadge(user, "Student", "Asked first question");
+    @Scheduled(fixedDelayString = "${sage.badges.award-interval-ms:2000}")
+    public int awardPending() {
+        if (pending.isEmpty()) {
+            return 0;
         }
-        if (questionCount >= 10) {
-            awardBadge(user, "Inquisitive", "Asked 10 questions");
+
+        // remove() hands each user's triggers over atomically; later triggers start a fresh entry
+        Map<Long, EnumSet<Trigger>> batch = new HashMap<>();
+        for (Long userId : pending.keySet()) {
+            if (batch.size() >= batchSize) {
+                break;
+            }
+            EnumSet<Trigger> triggers = pending.remove(userId);
+            if (triggers != null) {
+                batch.put(userId, triggers);
+            }
         }
-        if (questionCount >= 50) {
-            awardBadge(user, "Socratic", "Asked 50 questions");
+
+        try {
+            List<Object[]> awards = evaluate(batch);
+            if (!awards.isEmpty()) {
+                // ON CONFLICT DO NOTHING reports 0 for a badge a racing award already inserted.
+                // A driver that rewrites the batch reports SUCCESS_NO_INFO, counted as awarded.
+                for (int count : jdbcTemplate.batchUpdate(AWARD_SQL, awards)) {
+                    if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                        awardCount.increment();
+                    }
+                }
+            }
+            log.debug("Evaluated badges for {} users, {} candidate awards", batch.size(), awards.size());
+        } catch (RuntimeException e) {
+            // Re-queue so the next pass retries; awards are idempotent
+            batch.forEach(this::enqueue);
+            log.warn("Failed to evaluate badges for {} users, will retry", batch.size(), e);
         }
+        return batch.size();
     }
 
-    private void checkAnswerBadges(User user) {
-        int answerCount = user.getAnswers().size();
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("sage.badges.awarded", awardCount, LongAdder::sum)
+                .description("Badges awarded")
+                .register(registry);
+        Gauge.builder("sage.badges.pending.users", pending, Map::size)
+                .description("Users with badge checks waiting to be evaluated")
+                .register(registry);
+    }
 
-        if (answerCount >= 1) {
-            awardBadge(user, "Teacher", "Answered first question");
-        }
-        if (answerCount >= 10) {
-            awardBadge(user, "Enlightened", "Answered 10 questions");
-        }
-        if (answerCount >= 50) {
-            awardBadge(user, "Guru", "Answered 50 questions");
-        }
+    public void refreshBadgeCache() {
+        badgeIdsByName = null;
     }
 
-    private void checkReputationBadges(User user) {
-        int reputation = user.getReputation();
+    private List<Object[]> evaluate(Map<Long, EnumSet<Trigger>> batch) {
+        Set<Long> userIds = batch.keySet();
+        Map<String, Long> badgeIds = badgeIds();
 
-        if (reputation >= 100) {
-            awardBadge(user, "Trusted", "Reached 100 reputation");
-        }
-        if (reputation >= 500) {
-            awardBadge(user, "Established", "Reached 500 reputation");
+        Map<Long, UserStats> stats = userStatsRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(UserStats::getUserId, s -> s));
+
+        Map<Long, Integer> reputations = new HashMap<>();
+        if (batch.values().stream().anyMatch(t -> t.contains(Trigger.REPUTATION_CHANGED))) {
+            for (Object[] row : userRepository.findReputationsByIds(userIds)) {
+                reputations.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+            }
         }
-        if (reputation >= 1000) {
-            awardBadge(user, "Notable", "Reached 1000 reputation");
+
+        Map<Long, Set<Long>> held = new HashMap<>();
+        for (Object[] row : userBadgeRepository.findBadgeIdsByUserIds(userIds)) {
+            held.computeIfAbsent(((Number) row[0]).longValue(), id -> new HashSet<>()).add(((Number) row[1]).longValue());
         }
-        if (reputation >= 5000) {
-            awardBadge(user, "Famous", "Reached 5000 reputation");
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> awards = new ArrayList<>();
+        batch.forEach((userId, triggers) -> {
+            Facts facts = new Facts(stats.getOrDefault(userId, new UserStats(userId)), reputations.getOrDefault(userId, 0));
+            Set<Long> owned = held.getOrDefault(userId, Set.of());
+            for (Trigger trigger : triggers) {
+                for (Rule rule : RULES.get(trigger)) {
+                    Long badgeId = badgeIds.get(rule.badgeName());
+                    if (badgeId != null && !owned.contains(badgeId)
+                            && rule.metric().applyAsInt(facts) >= rule.threshold()) {
+                        awards.add(new Object[]{userId, badgeId, now, rule.reason()});
+                    }
+                }
+            }
+        });
+        return awards;
+    }
+
+    private void enqueue(Long userId, EnumSet<Trigger> triggers) {
+        pending.merge(userId, triggers, (current, added) -> {
+            EnumSet<Trigger> merged = EnumSet.copyOf(current);
+            merged.addAll(added);
+            return merged;
+        });
+    }
+
+    private Map<String, Long> badgeIds() {
+        Map<String, Long> ids = badgeIdsByName;
+        if (ids == null) {
+            ids = badgeRepository.findByIsActiveTrue().stream()
+                    .collect(Collectors.toUnmodifiableMap(Badge::getName, Badge::getId));
+            // Don't pin an empty map if the badge seed data hasn't been loaded yet
+            if (!ids.isEmpty()) {
+                badgeIdsByName = ids;
+            }
         }
+        return ids;
     }
 }
@@ -1,5 +1,7 @@
 package com.devik.sage.service;
 
+import com.devik.sage.dto.BulkCommentsResponse;
+import com.devik.sage.dto.CommentResponse;
 import com.devik.sage.exception.ResourceNotFoundException;
 import com.devik.sage.model.Answer;
 import com.devik.sage.model.Comment;
@@ -8,12 +10,15 @@ import com.devik.sage.model.User;
 import com.devik.sage.repository.AnswerRepository;
 import com.devik.sage.repository.CommentRepository;
 import com.devik.sage.repository.QuestionRepository;
-import com.devik.sage.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -23,7 +28,7 @@ public class CommentService {
     private final CommentRepository commentRepository;
     private final QuestionRepository questionRepository;
     private final AnswerRepository answerRepository;
-    private final UserRepository userRepository;
+    private final UserStatsService userStatsService;
 
     public List<Comment> getCommentsByQuestion(Long questionId) {
         Question question = questionRepository.findById(questionId)
@@ -37,55 +42,123 @@ public class CommentService {
         return commentRepository.findByAnswerOrderByCreatedAtAsc(answer);
     }
 
-    public Comment createCommentForQuestion(Long questionId, String content, String username) {
+    /**
+     * Comments for a question and the given answers in one query, grouped by parent: the
+     * oldest {@code perParent} of each, with a count of the ones left out. Answers without
+     * comments get an empty group. The same query reads the question's version, which
+     * comment changes move, so the result can be tagged without a second read.
+     */
+    @Transactional(readOnly = true)
+    public QuestionPageComments getCommentsForQuestionPage(Long questionId, List<Long> answerIds, int perParent,
+                                                           Long viewerId) {
+        // An empty IN () list is not valid SQL; no answer has id -1
+        List<Long> ids = answerIds.isEmpty() ? List.of(-1L) : answerIds;
+
+        List<Object[]> rows = commentRepository.findFirstPerParent(questionId, ids, perParent);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Question not found");
+        }
+
+        // Groups only for the requested answers the query confirmed belong to this question, in request order
+        Set<Long> confirmed = new HashSet<>();
+        for (Object[] row : rows) {
+            if (row[7] != null) {
+                confirmed.add(((Number) row[7]).longValue());
+            }
+        }
+        BulkCommentsResponse response = new BulkCommentsResponse();
+        answerIds.stream()
+                .filter(confirmed::contains)
+                .forEach(answerId -> response.getAnswers().put(answerId, new BulkCommentsResponse.CommentGroup()));
+        for (Object[] row : rows) {
+            if (row[0] == null) {
+                continue;
+            }
+            BulkCommentsResponse.CommentGroup group = row[7] == null
+                    ? response.getQuestion()
+                    : response.getAnswers().get(((Number) row[7]).longValue());
+            group.getComments().add(toResponse(row, viewerId));
+            group.setMoreCount(((Number) row[8]).longValue() - group.getComments().size());
+        }
+        String version = QuestionService.version(questionId, ((Number) rows.get(0)[9]).longValue(),
+                toLocalDateTime(rows.get(0)[10]));
+        return new QuestionPageComments(version, response);
+    }
+
+    public Comment createCommentForQuestion(Long questionId, String content, User user) {
         Question question = questionRepository.findById(questionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Question not found"));
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
         Comment comment = new Comment();
         comment.setBody(content);
         comment.setQuestion(question);
         comment.setUser(user);
 
-        return commentRepository.save(comment);
+        Comment saved = commentRepository.save(comment);
+        questionRepository.recordChange(questionId);
+        userStatsService.commentPosted(user.getId());
+        return saved;
     }
 
-    public Comment createCommentForAnswer(Long answerId, String content, String username) {
+    public Comment createCommentForAnswer(Long answerId, String content, User user) {
         Answer answer = answerRepository.findById(answerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Answer not found"));
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
         Comment comment = new Comment();
         comment.setBody(content);
         comment.setAnswer(answer);
         comment.setUser(user);
 
-        return commentRepository.save(comment);
+        Comment saved = commentRepository.save(comment);
+        questionRepository.recordChange(answer.getQuestion().getId());
+        userStatsService.commentPosted(user.getId());
+        return saved;
     }
 
-    public Comment updateComment(Long commentId, String content, String username) {
+    public Comment updateComment(Long commentId, String content, User user) {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Comment not found"));
 
-        if (!comment.getUser().getUsername().equals(username)) {
+        if (!comment.getUser().getId().equals(user.getId())) {
             throw new RuntimeException("You can only edit your own comments");
         }
 
         comment.setBody(content);
+        questionRepository.recordChange(questionIdOf(comment));
         return commentRepository.save(comment);
     }
 
-    public void deleteComment(Long commentId, String username) {
+    public void deleteComment(Long commentId, User user) {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Comment not found"));
 
-        if (!comment.getUser().getUsername().equals(username)) {
+        if (!comment.getUser().getId().equals(user.getId())) {
             throw new RuntimeException("You can only delete your own comments");
         }
 
         commentRepository.delete(comment);
+        questionRepository.recordChange(questionIdOf(comment));
+        userStatsService.commentDeleted(user.getId());
+    }
+
+    private static Long questionIdOf(Comment comment) {
+        return comment.getQuestion() != null ? comment.getQuestion().getId() : comment.getAnswer().getQuestion().getId();
+    }
+
+    private static CommentResponse toResponse(Object[] row, Long viewerId) {
+        Long authorId = ((Number) row[2]).longValue();
+        return new CommentResponse(
+                ((Number) row[0]).longValue(),
+                (String) row[1],
+                (String) row[3],
+                authorId,
+                toLocalDateTime(row[4]),
+                toLocalDateTime(row[5]),
+                authorId.equals(viewerId));
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
     }
 
     public Comment getCommentById(Long commentId) {
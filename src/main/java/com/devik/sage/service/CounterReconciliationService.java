@@ -0,0 +1,75 @@
+package com.devik.sage.service;
+
+import com.devik.sage.repository.AnswerRepository;
+import com.devik.sage.repository.QuestionRepository;
+import com.devik.sage.repository.TagRepository;
+import com.devik.sage.repository.UserRepository;
+import com.devik.sage.repository.UserStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Repairs drift in the denormalized vote, answer, tag question and user activity counters
+ * by recounting from the source tables. Walks ids in chunks, each chunk in its own short
+ * transaction, and only rewrites rows whose stored counters disagree.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CounterReconciliationService {
+
+    private final QuestionRepository questionRepository;
+    private final AnswerRepository answerRepository;
+    private final TagRepository tagRepository;
+    private final UserRepository userRepository;
+    private final UserStatsRepository userStatsRepository;
+
+    @Value("${sage.counters.reconcile-chunk-size:500}")
+    private int chunkSize;
+
+    @Scheduled(cron = "${sage.counters.reconcile-cron:0 30 3 * * *}")
+    public void reconcileAll() {
+        int questions = reconcile(questionRepository::findIdsAfter, questionRepository::reconcileCounters);
+        int answers = reconcile(answerRepository::findIdsAfter, answerRepository::reconcileCounters);
+        int tags = reconcile(tagRepository::findIdsAfter, tagRepository::reconcileCounters);
+        int users = reconcile(userRepository::findIdsAfter, userStatsRepository::reconcileCounters);
+        log.info("Counter reconciliation repaired {} questions, {} answers, {} tags and {} user stats",
+                questions, answers, tags, users);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillUserStatsOnStartup() {
+        // Off the startup thread: the first run counts activity for every existing user
+        Thread.ofPlatform().name("user-stats-backfill").start(this::backfillUserStats);
+    }
+
+    /** Counts activity for users that have no user_stats row yet; after the first run there are none. */
+    public int backfillUserStats() {
+        int backfilled = reconcile(userRepository::findIdsWithoutStatsAfter, userStatsRepository::reconcileCounters);
+        if (backfilled > 0) {
+            log.info("Backfilled user stats for {} users", backfilled);
+        }
+        return backfilled;
+    }
+
+    private int reconcile(BiFunction<Long, Integer, List<Long>> nextChunk, Function<List<Long>, Integer> repairChunk) {
+        int repaired = 0;
+        Long afterId = Long.MIN_VALUE;
+        List<Long> ids = nextChunk.apply(afterId, chunkSize);
+        while (!ids.isEmpty()) {
+            repaired += repairChunk.apply(ids);
+            afterId = ids.get(ids.size() - 1);
+            ids = nextChunk.apply(afterId, chunkSize);
+        }
+        return repaired;
+    }
+}
@@ -0,0 +1,71 @@
+package com.devik.sage.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lets read-only transactions read from a recent snapshot with CockroachDB's
+ * {@code AS OF SYSTEM TIME}, so any replica can serve them and they never wait on
+ * writers. Each endpoint names its staleness in {@code sage.follower-reads.staleness.<endpoint>}:
+ * {@code follower} for {@code follower_read_timestamp()}, the newest snapshot every
+ * replica is guaranteed to hold; a duration such as {@code 10s}; or {@code none} for a
+ * current read. A duration shorter than the cluster's closed timestamp lag still works,
+ * but is served by the leaseholder. Off unless {@code sage.follower-reads.enabled} is set,
+ * since PostgreSQL has no {@code AS OF SYSTEM TIME}.
+ */
+@Component
+@RequiredArgsConstructor
+public class FollowerReads {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Environment environment;
+
+    private final Map<String, String> clauses = new ConcurrentHashMap<>();
+
+    @Value("${sage.follower-reads.enabled:false}")
+    private boolean enabled;
+
+    @Value("${sage.follower-reads.default-staleness:follower}")
+    private String defaultStaleness;
+
+    /**
+     * Pins the current transaction to the endpoint's snapshot. Must come before any other
+     * statement in a read-only transaction the caller started.
+     */
+    public void apply(String endpoint) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            throw new IllegalStateException("Follower reads need a read-only transaction: " + endpoint);
+        }
+        String clause = clauses.computeIfAbsent(endpoint, this::clause);
+        if (!clause.isEmpty()) {
+            jdbcTemplate.execute("SET TRANSACTION AS OF SYSTEM TIME " + clause);
+        }
+    }
+
+    private String clause(String endpoint) {
+        String staleness = environment.getProperty("sage.follower-reads.staleness." + endpoint, defaultStaleness).trim();
+        if (staleness.equalsIgnoreCase("none")) {
+            return "";
+        }
+        if (staleness.equalsIgnoreCase("follower")) {
+            return "follower_read_timestamp()";
+        }
+        Duration duration = DurationStyle.detectAndParse(staleness);
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Follower read staleness must be positive: " + endpoint + "=" + staleness);
+        }
+        return "'-" + duration.toMillis() + "ms'";
+    }
+}
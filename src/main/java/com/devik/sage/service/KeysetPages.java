@@ -0,0 +1,75 @@
+package com.devik.sage.service;
+
+import com.devik.sage.dto.CursorPageResponse;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Runs a keyset (seek) page over a listing sorted by {@code createdAt DESC, id DESC}.
+ * Fetches one extra row to detect whether a further page exists, so no COUNT(*) is needed.
+ */
+final class KeysetPages {
+
+    @FunctionalInterface
+    interface SeekQuery<T> {
+        List<T> seek(LocalDateTime createdAt, Long id, Pageable limit);
+    }
+
+    private KeysetPages() {
+    }
+
+    static <T> CursorPageResponse<T> fetch(String cursor, int size,
+                                           Function<T, LocalDateTime> createdAtOf,
+                                           Function<T, Long> idOf,
+                                           Function<Pageable, List<T>> firstPage,
+                                           SeekQuery<T> olderThan,
+                                           SeekQuery<T> newerThan) {
+        PageCursor position = cursor == null || cursor.isBlank() ? null : PageCursor.decode(cursor);
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        List<T> rows;
+        boolean hasNext;
+        boolean hasPrevious;
+        if (position == null) {
+            rows = new ArrayList<>(firstPage.apply(limit));
+            hasNext = rows.size() > size;
+            hasPrevious = false;
+        } else if (position.getDirection() == PageCursor.Direction.NEXT) {
+            rows = new ArrayList<>(olderThan.seek(position.getCreatedAt(), position.getId(), limit));
+            hasNext = rows.size() > size;
+            hasPrevious = true;
+        } else {
+            // Seek query returns the nearest newer rows in ascending order; flip them back to DESC
+            rows = new ArrayList<>(newerThan.seek(position.getCreatedAt(), position.getId(), limit));
+            hasPrevious = rows.size() > size;
+            hasNext = true;
+        }
+        if (rows.size() > size) {
+            rows = new ArrayList<>(rows.subList(0, size));
+        }
+        if (position != null && position.getDirection() == PageCursor.Direction.PREV) {
+            Collections.reverse(rows);
+        }
+
+        CursorPageResponse<T> page = new CursorPageResponse<>();
+        page.setContent(rows);
+        page.setSize(size);
+        page.setHasNext(hasNext && !rows.isEmpty());
+        page.setHasPrevious(hasPrevious && !rows.isEmpty());
+        if (page.isHasNext()) {
+            T last = rows.get(rows.size() - 1);
+            page.setNextCursor(new PageCursor(createdAtOf.apply(last), idOf.apply(last), PageCursor.Direction.NEXT).encode());
+        }
+        if (page.isHasPrevious()) {
+            T first = rows.get(0);
+            page.setPrevCursor(new PageCursor(createdAtOf.apply(first), idOf.apply(first), PageCursor.Direction.PREV).encode());
+        }
+        return page;
+    }
+}
@@ -0,0 +1,44 @@
+package com.devik.sage.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position over {@code (createdAt, id)} listings ordered newest first.
+ * NEXT cursors seek to older rows, PREV cursors seek back to newer ones.
+ */
+@Getter
+@AllArgsConstructor
+public class PageCursor {
+
+    public enum Direction {
+        NEXT, PREV
+    }
+
+    private final LocalDateTime createdAt;
+    private final Long id;
+    private final Direction direction;
+
+    public String encode() {
+        String raw = createdAt + "|" + id + "|" + direction.name();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new PageCursor(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]), Direction.valueOf(parts[2]));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.devik.sage.service;
+
+import com.devik.sage.model.Answer;
+import com.devik.sage.model.Question;
+import org.springframework.data.domain.Page;
+
+/** A question with its author and tags loaded, plus one page of answers with their authors. */
+public record QuestionPage(Question question, Page<Answer> answers) {
+}
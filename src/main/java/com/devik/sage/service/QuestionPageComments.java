@@ -0,0 +1,7 @@
+package com.devik.sage.service;
+
+import com.devik.sage.dto.BulkCommentsResponse;
+
+/** Comments for a question page, with the version of the question they were read with. */
+public record QuestionPageComments(String questionVersion, BulkCommentsResponse comments) {
+}
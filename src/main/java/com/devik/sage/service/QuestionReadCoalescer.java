@@ -0,0 +1,93 @@
+package com.devik.sage.service;
+
+import com.devik.sage.model.Answer;
+import com.devik.sage.model.Question;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Sits in front of the question detail reads so a traffic spike on one question
+ * costs one database load per key at a time, not one per request.
+ */
+@Service
+@RequiredArgsConstructor
+@ManagedResource(objectName = "com.devik.sage:type=QuestionReadCoalescer")
+public class QuestionReadCoalescer implements MeterBinder {
+
+    private final QuestionService questionService;
+    private final AnswerService answerService;
+
+    private final SingleFlight<Long, Question> questionLoads = new SingleFlight<>();
+    private final SingleFlight<List<Object>, Page<Answer>> answerPageLoads = new SingleFlight<>();
+    private final SingleFlight<List<Object>, QuestionPage> questionPageLoads = new SingleFlight<>();
+
+    public Question getQuestionById(Long id) {
+        return questionLoads.load(id, () -> questionService.getQuestionById(id));
+    }
+
+    public Page<Answer> getAnswersByQuestionId(Long questionId, int page, int size) {
+        return answerPageLoads.load(List.of(questionId, page, size),
+                () -> answerService.getAnswersByQuestionId(questionId, page, size));
+    }
+
+    public QuestionPage getQuestionPage(Long questionId, int page, int size) {
+        return questionPageLoads.load(List.of(questionId, page, size),
+                () -> questionService.getQuestionPage(questionId, page, size));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "question", questionLoads);
+        bind(registry, "answer_page", answerPageLoads);
+        bind(registry, "question_page", questionPageLoads);
+    }
+
+    private static <K, V> void bind(MeterRegistry registry, String read, SingleFlight<K, V> loads) {
+        FunctionCounter.builder("sage.reads.requested", loads, SingleFlight::getCalls)
+                .tag("read", read)
+                .description("Coalesced reads requested")
+                .register(registry);
+        FunctionCounter.builder("sage.reads.coalesced", loads, SingleFlight::getCoalesced)
+                .tag("read", read)
+                .description("Reads served by another caller's in-flight load")
+                .register(registry);
+    }
+
+    @ManagedAttribute(description = "Question loads requested")
+    public long getQuestionCalls() {
+        return questionLoads.getCalls();
+    }
+
+    @ManagedAttribute(description = "Question loads served by another caller's in-flight load")
+    public long getQuestionCoalesced() {
+        return questionLoads.getCoalesced();
+    }
+
+    @ManagedAttribute(description = "Answer page loads requested")
+    public long getAnswerPageCalls() {
+        return answerPageLoads.getCalls();
+    }
+
+    @ManagedAttribute(description = "Answer page loads served by another caller's in-flight load")
+    public long getAnswerPageCoalesced() {
+        return answerPageLoads.getCoalesced();
+    }
+
+    @ManagedAttribute(description = "Question page loads requested")
+    public long getQuestionPageCalls() {
+        return questionPageLoads.getCalls();
+    }
+
+    @ManagedAttribute(description = "Question page loads served by another caller's in-flight load")
+    public long getQuestionPageCoalesced() {
+        return questionPageLoads.getCoalesced();
+    }
+}
@@ -0,0 +1,327 @@
+package com.devik.sage.service;
+
+import com.devik.sage.model.Question;
+import com.devik.sage.model.Tag;
+import com.devik.sage.repository.QuestionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * In-process Lucene index over question titles, bodies and tags. Kept up to date
+ * incrementally after each committed write and rebuildable from the database.
+ * Incremental updates run on one dedicated platform thread: Lucene flushes segments
+ * while holding monitors, which would pin the carrier if it ran on a virtual request
+ * thread, and a single writer thread keeps updates in commit order.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ManagedResource(objectName = "com.devik.sage:type=QuestionSearchIndex")
+public class QuestionSearchIndex {
+
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String BODY = "body";
+    private static final String TAGS = "tags";
+    private static final String CREATED = "created";
+    private static final String ID_SORT = "idSort";
+
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of(TITLE, 3.0f, TAGS, 2.0f, BODY, 1.0f);
+    private static final int REBUILD_CHUNK_SIZE = 500;
+    private static final int MAX_RESULT_WINDOW = 10_000;
+
+    private final QuestionRepository questionRepository;
+
+    @Value("${sage.search.index-dir:}")
+    private String indexDir;
+
+    @Value("${sage.search.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    private final StandardAnalyzer analyzer = new StandardAnalyzer();
+    private final ExecutorService updateExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("search-index").daemon().factory());
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+
+    public record SearchHits(List<Long> ids, long totalHits) {
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        Directory directory = indexDir == null || indexDir.isBlank()
+                ? new ByteBuffersDirectory()
+                : FSDirectory.open(Path.of(indexDir));
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    /**
+     * Rebuilds on the update thread, so startup and readiness don't wait for it and updates
+     * committed meanwhile are applied after it, never overwritten by an older copy.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            updateExecutor.execute(() -> {
+                try {
+                    rebuildNow();
+                } catch (RuntimeException e) {
+                    log.error("Failed to rebuild question search index on startup", e);
+                }
+            });
+        }
+    }
+
+    /** Queues the rebuild behind pending updates on the update thread and waits for it. */
+    @ManagedOperation(description = "Drop the search index and rebuild it from the questions table")
+    public void rebuild() throws InterruptedException {
+        try {
+            updateExecutor.submit(this::rebuildNow).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Failed to rebuild question search index", e.getCause());
+        }
+    }
+
+    private void rebuildNow() {
+        long started = System.currentTimeMillis();
+        int indexed = 0;
+        try {
+            writer.deleteAll();
+            List<Long> ids = questionRepository.findIdsAfter(Long.MIN_VALUE, REBUILD_CHUNK_SIZE);
+            while (!ids.isEmpty()) {
+                for (Question question : questionRepository.findAllById(ids)) {
+                    writer.updateDocument(new Term(ID, question.getId().toString()), toDocument(question));
+                    indexed++;
+                }
+                ids = questionRepository.findIdsAfter(ids.get(ids.size() - 1), REBUILD_CHUNK_SIZE);
+            }
+            writer.commit();
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rebuild question search index", e);
+        }
+        log.info("Rebuilt question search index with {} questions in {} ms", indexed, System.currentTimeMillis() - started);
+    }
+
+    /** Indexes the question once the surrounding transaction commits (or right away if there is none). */
+    public void index(Question question) {
+        Term id = new Term(ID, question.getId().toString());
+        Document document = toDocument(question);
+        afterCommit(() -> writer.updateDocument(id, document));
+    }
+
+    public void delete(Long questionId) {
+        Term id = new Term(ID, questionId.toString());
+        afterCommit(() -> writer.deleteDocuments(id));
+    }
+
+    /** Relevance-ranked page of matching question ids. */
+    public SearchHits search(String queryText, int page, int size) {
+        // Ranking needs every hit up to the end of the page, so deep pages are capped
+        long window = ((long) page + 1) * size;
+        if (window > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("Search pages end at result " + MAX_RESULT_WINDOW
+                    + "; use the cursor endpoint to read further");
+        }
+        Query query = parse(queryText);
+        IndexSearcher searcher = acquire();
+        try {
+            TopDocs topDocs = searcher.search(query, Math.max(1, (int) window));
+            List<Long> ids = new ArrayList<>();
+            ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+            for (int i = page * size; i < scoreDocs.length; i++) {
+                ids.add(Long.valueOf(searcher.storedFields().document(scoreDocs[i].doc).get(ID)));
+            }
+            return new SearchHits(ids, searcher.count(query));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Question search failed", e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    /**
+     * Matching question ids in {@code (createdAt, id)} order, seeking from a keyset position:
+     * older than it (newest first) or newer than it (oldest first). A null position starts at the newest.
+     */
+    public List<Long> searchByRecency(String queryText, LocalDateTime createdAt, Long id, boolean newer, int limit) {
+        Query query = parse(queryText);
+        Sort sort = new Sort(new SortField(CREATED, SortField.Type.LONG, !newer),
+                new SortField(ID_SORT, SortField.Type.LONG, !newer));
+        IndexSearcher searcher = acquire();
+        try {
+            TopDocs topDocs = createdAt == null
+                    ? searcher.search(query, limit, sort)
+                    : searcher.searchAfter(new FieldDoc(Integer.MAX_VALUE, Float.NaN, new Object[]{toMicros(createdAt), id}),
+                            query, limit, sort);
+            List<Long> ids = new ArrayList<>();
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                ids.add(Long.valueOf(searcher.storedFields().document(scoreDoc.doc).get(ID)));
+            }
+            return ids;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Question search failed", e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${sage.search.commit-interval-ms:30000}")
+    public void commit() throws IOException {
+        if (writer.hasUncommittedChanges()) {
+            writer.commit();
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException, InterruptedException {
+        updateExecutor.shutdown();
+        if (!updateExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Search index updates still pending at shutdown; a rebuild will pick them up");
+        }
+        searcherManager.close();
+        writer.close();
+    }
+
+    private Document toDocument(Question question) {
+        Document document = new Document();
+        document.add(new StringField(ID, question.getId().toString(), Field.Store.YES));
+        document.add(new TextField(TITLE, nullToEmpty(question.getTitle()), Field.Store.NO));
+        document.add(new TextField(BODY, nullToEmpty(question.getBody()), Field.Store.NO));
+        document.add(new TextField(TAGS, question.getTags().stream()
+                .map(Tag::getName)
+                .collect(Collectors.joining(" ")), Field.Store.NO));
+        document.add(new NumericDocValuesField(CREATED, toMicros(question.getCreatedAt())));
+        document.add(new NumericDocValuesField(ID_SORT, question.getId()));
+        return document;
+    }
+
+    // Text without any searchable term, blank or punctuation only, matches nothing rather than failing
+    private Query parse(String queryText) {
+        if (queryText == null || queryText.isBlank()) {
+            return new MatchNoDocsQuery();
+        }
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(new String[]{TITLE, TAGS, BODY}, analyzer, FIELD_BOOSTS);
+        try {
+            Query query = parser.parse(QueryParser.escape(queryText));
+            return query == null ? new MatchNoDocsQuery() : query;
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Invalid search query", e);
+        }
+    }
+
+    private void afterCommit(IndexUpdate update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(update);
+                }
+            });
+        } else {
+            apply(update);
+        }
+    }
+
+    private void apply(IndexUpdate update) {
+        try {
+            updateExecutor.execute(() -> applyNow(update));
+        } catch (RejectedExecutionException e) {
+            // Shutting down after the write committed; the rebuild on the next start picks it up
+            log.warn("Search index is closed, dropped an update; the next rebuild will pick it up");
+        }
+    }
+
+    private void applyNow(IndexUpdate update) {
+        try {
+            update.run();
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            // The database write already committed; a rebuild brings the index back in line
+            log.error("Failed to update question search index", e);
+        }
+    }
+
+    private IndexSearcher acquire() {
+        try {
+            return searcherManager.acquire();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open question search index", e);
+        }
+    }
+
+    private void release(IndexSearcher searcher) {
+        try {
+            searcherManager.release(searcher);
+        } catch (IOException e) {
+            log.warn("Failed to release index searcher", e);
+        }
+    }
+
+    private static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    @FunctionalInterface
+    private interface IndexUpdate {
+        void run() throws IOException;
+    }
+}
@@ -1,12 +1,17 @@
 package com.devik.sage.service;
 
+import com.devik.sage.dto.CursorPageResponse;
+import com.devik.sage.exception.ResourceNotFoundException;
+import com.devik.sage.model.Answer;
 import com.devik.sage.model.Question;
 import com.devik.sage.model.Tag;
 import com.devik.sage.model.User;
+import com.devik.sage.repository.AnswerRepository;
 import com.devik.sage.repository.QuestionRepository;
 import com.devik.sage.repository.TagRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -14,9 +19,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -24,16 +34,71 @@ import java.util.Set;
 public class QuestionService {
 
     private final QuestionRepository questionRepository;
+    private final AnswerRepository answerRepository;
     private final TagRepository tagRepository;
+    private final QuestionSearchIndex searchIndex;
+    private final UserStatsService userStatsService;
+    private final TagResolver tagResolver;
+    private final FollowerReads followerReads;
 
+    @Transactional(readOnly = true)
     public Page<Question> getAllQuestions(int page, int size) {
+        followerReads.apply("questions");
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
         return questionRepository.findAll(pageable);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageResponse<Question> getAllQuestions(String cursor, int size) {
+        followerReads.apply("questions");
+        return KeysetPages.fetch(cursor, size, Question::getCreatedAt, Question::getId,
+                questionRepository::findKeysetFirst,
+                questionRepository::findKeysetOlderThan,
+                questionRepository::findKeysetNewerThan);
+    }
+
     public Question getQuestionById(Long id) {
-        return questionRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Question not found"));
+        return questionRepository.findWithUserAndTagsById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Question not found"));
+    }
+
+    /**
+     * Version of the question and of everything shown with it (answers, their votes,
+     * comments), read as two columns without loading the question. View counts are left
+     * out, as every read changes them.
+     */
+    @Transactional(readOnly = true)
+    public String getQuestionVersion(Long id) {
+        List<Object[]> rows = questionRepository.findVersionById(id);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Question not found");
+        }
+        return version(id, ((Number) rows.get(0)[1]).longValue(), (LocalDateTime) rows.get(0)[0]);
+    }
+
+    /** The same version as {@link #getQuestionVersion}, taken from an already loaded question. */
+    public static String versionOf(Question question) {
+        return version(question.getId(), question.getChangeCount(), question.getUpdatedAt());
+    }
+
+    static String version(Long id, long changeCount, LocalDateTime updatedAt) {
+        long updatedMicros = updatedAt == null ? 0
+                : updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + updatedAt.getNano() / 1_000;
+        return id + "." + changeCount + "." + Long.toHexString(updatedMicros);
+    }
+
+    /**
+     * Everything the question page renders in two statements: the question joined with its
+     * author and tags, then the answer page joined with authors. The answers' question is
+     * already in the persistence context, and the total comes from the answer_count column.
+     */
+    @Transactional(readOnly = true)
+    public QuestionPage getQuestionPage(Long id, int page, int size) {
+        Question question = questionRepository.findWithUserAndTagsById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Question not found"));
+        PageRequest pageable = PageRequest.of(page, size);
+        List<Answer> answers = answerRepository.findPageWithUserByQuestionId(id, pageable);
+        return new QuestionPage(question, new PageImpl<>(answers, pageable, question.getAnswerCount()));
     }
 
     public Question createQuestion(Question question, Set<String> tagNames, User user) {
@@ -42,34 +107,62 @@ public class QuestionService {
         question.setUpdatedAt(LocalDateTime.now());
 
         // Handle tags
-        Set<Tag> tags = new HashSet<>();
-        for (String tagName : tagNames) {
-            Tag tag = tagRepository.findByName(tagName)
-                    .orElseGet(() -> {
-                        Tag newTag = new Tag();
-                        newTag.setName(tagName);
-                        return tagRepository.save(newTag);
-                    });
-            tags.add(tag);
-        }
+        Set<Tag> tags = tagResolver.resolve(tagNames);
         question.setTags(tags);
 
-        return questionRepository.save(question);
+        Question saved = questionRepository.save(question);
+        if (!tags.isEmpty()) {
+            tagRepository.recordTagged(tagIds(tags), LocalDateTime.now());
+        }
+        userStatsService.questionPosted(user.getId());
+        searchIndex.index(saved);
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public Page<Question> searchQuestions(String query, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        return questionRepository.findByTitleContainingIgnoreCaseOrBodyContainingIgnoreCase(
-                query, query, pageable);
+        followerReads.apply("search");
+        Pageable pageable = PageRequest.of(page, size);
+        QuestionSearchIndex.SearchHits hits = searchIndex.search(query, page, size);
+        return new PageImpl<>(findAllInOrder(hits.ids()), pageable, hits.totalHits());
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageResponse<Question> searchQuestions(String query, String cursor, int size) {
+        followerReads.apply("search");
+        return KeysetPages.fetch(cursor, size, Question::getCreatedAt, Question::getId,
+                limit -> findAllInOrder(searchIndex.searchByRecency(query, null, null, false, limit.getPageSize())),
+                (createdAt, id, limit) -> findAllInOrder(
+                        searchIndex.searchByRecency(query, createdAt, id, false, limit.getPageSize())),
+                (createdAt, id, limit) -> findAllInOrder(
+                        searchIndex.searchByRecency(query, createdAt, id, true, limit.getPageSize())));
+    }
+
+    @Transactional(readOnly = true)
     public Page<Question> getQuestionsByTag(String tagName, int page, int size) {
+        followerReads.apply("tagged");
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
         return questionRepository.findByTagsName(tagName, pageable);
     }
 
-    public Long getAnswerCountByQuestionId(Long questionId) {
-        return questionRepository.countAnswersByQuestionId(questionId);
+    @Transactional(readOnly = true)
+    public CursorPageResponse<Question> getQuestionsByTag(String tagName, String cursor, int size) {
+        followerReads.apply("tagged");
+        return KeysetPages.fetch(cursor, size, Question::getCreatedAt, Question::getId,
+                limit -> questionRepository.findKeysetFirstByTagName(tagName, limit),
+                (createdAt, id, limit) -> questionRepository.findKeysetOlderThanByTagName(tagName, createdAt, id, limit),
+                (createdAt, id, limit) -> questionRepository.findKeysetNewerThanByTagName(tagName, createdAt, id, limit));
+    }
+
+    private List<Question> findAllInOrder(List<Long> ids) {
+        // findAllById gives no ordering guarantee; restore the index's ranking. Ids the
+        // snapshot doesn't have yet (follower reads) are dropped like deleted ones
+        Map<Long, Question> byId = questionRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Question::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     public Question updateQuestion(Long id, Question updatedQuestion, User user) {
@@ -82,7 +175,9 @@ public class QuestionService {
         existing.setBody(updatedQuestion.getBody());
         existing.setUpdatedAt(LocalDateTime.now());
 
-        return questionRepository.save(existing);
+        Question saved = questionRepository.save(existing);
+        searchIndex.index(saved);
+        return saved;
     }
 
     public void deleteQuestion(Long id, User user) {
@@ -90,13 +185,18 @@ public class QuestionService {
         if (!existing.getUser().getId().equals(user.getId())) {
             throw new RuntimeException("You can only delete your own questions");
         }
+        Set<Tag> tags = existing.getTags();
         questionRepository.delete(existing);
+        if (!tags.isEmpty()) {
+            tagRepository.recordUntagged(tagIds(tags));
+        }
+        userStatsService.questionDeleted(user.getId());
+        searchIndex.delete(id);
     }
 
-    public void incrementViewCount(Long questionId) {
-        Question question = questionRepository.findById(questionId)
-                .orElseThrow(() -> new RuntimeException("Question not found"));
-        question.incrementViewCount();
-        questionRepository.save(question);
+    private static List<Long> tagIds(Set<Tag> tags) {
+        return tags.stream()
+                .map(Tag::getId)
+                .collect(Collectors.toList());
     }
 }
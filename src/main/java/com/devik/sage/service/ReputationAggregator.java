@@ -0,0 +1,108 @@
+package com.devik.sage.service;
+
+import com.devik.sage.repository.ReputationEventRepository;
+import com.devik.sage.repository.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Folds pending reputation ledger entries into users.reputation in batches: one
+ * summed UPDATE per affected user, then queues reputation badge checks for those users.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReputationAggregator implements MeterBinder {
+
+    private final ReputationEventRepository reputationEventRepository;
+    private final BadgeService badgeService;
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+
+    private final LongAdder eventsAggregated = new LongAdder();
+    private final LongAdder userUpdates = new LongAdder();
+
+    @Value("${sage.reputation.aggregate-batch-size:1000}")
+    private int batchSize;
+
+    @Value("${sage.reputation.baseline-chunk-size:5000}")
+    private int baselineChunkSize;
+
+    @Scheduled(fixedDelayString = "${sage.reputation.aggregate-interval-ms:5000}")
+    @Transactional
+    public int aggregate() {
+        List<Object[]> events = reputationEventRepository.lockPendingBatch(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> eventIds = new ArrayList<>();
+        Map<Long, Integer> deltas = new HashMap<>();
+        for (Object[] event : events) {
+            eventIds.add(((Number) event[0]).longValue());
+            deltas.merge(((Number) event[1]).longValue(), ((Number) event[2]).intValue(), Integer::sum);
+        }
+
+        List<Object[]> updates = new ArrayList<>();
+        deltas.forEach((userId, delta) -> updates.add(new Object[]{delta, userId}));
+        jdbcTemplate.batchUpdate("UPDATE users SET reputation = reputation + ? WHERE id = ?", updates);
+        reputationEventRepository.markAggregated(eventIds);
+
+        deltas.keySet().forEach(userId -> badgeService.queueCheck(userId, BadgeService.Trigger.REPUTATION_CHANGED));
+
+        eventsAggregated.add(events.size());
+        userUpdates.add(deltas.size());
+        log.debug("Aggregated {} reputation events for {} users", events.size(), deltas.size());
+        return events.size();
+    }
+
+    /**
+     * Seeds the reputation baseline of users that don't have one yet: accounts from before the
+     * ledger, dump imports (the import runs before the app is ready) and users created since
+     * the last start. Once seeded, baseline plus ledger recomputes users.reputation.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedBaselinesOnStartup() {
+        // Off the startup thread: the first run walks every existing user
+        Thread.ofPlatform().name("reputation-baseline").start(this::seedBaselines);
+    }
+
+    public long seedBaselines() {
+        long seeded = 0;
+        List<Long> ids = userRepository.findIdsWithoutReputationBaselineAfter(Long.MIN_VALUE, baselineChunkSize);
+        while (!ids.isEmpty()) {
+            seeded += userRepository.seedReputationBaselines(ids);
+            ids = userRepository.findIdsWithoutReputationBaselineAfter(ids.get(ids.size() - 1), baselineChunkSize);
+        }
+        if (seeded > 0) {
+            log.info("Seeded reputation baselines for {} users", seeded);
+        }
+        return seeded;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("sage.reputation.events.aggregated", eventsAggregated, LongAdder::sum)
+                .description("Reputation ledger entries folded into user reputation")
+                .register(registry);
+        FunctionCounter.builder("sage.reputation.updates", userUpdates, LongAdder::sum)
+                .description("Per-user reputation updates written")
+                .register(registry);
+    }
+}
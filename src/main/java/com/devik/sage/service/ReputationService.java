@@ -1,21 +1,26 @@
 package com.devik.sage.service;
 
+import com.devik.sage.model.ReputationEvent;
 import com.devik.sage.model.User;
-import com.devik.sage.model.Question;
-import com.devik.sage.model.Answer;
-import com.devik.sage.repository.UserRepository;
+import com.devik.sage.model.Vote;
+import com.devik.sage.repository.ReputationEventRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Records reputation changes as ledger entries. Nothing here reads or writes the user
+ * row: ReputationAggregator folds the ledger into users.reputation asynchronously.
+ * The stored value is the user's pre-ledger baseline plus the ledger sum, never floored,
+ * so folding order can't change it; it is shown floored at 0.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ReputationService {
 
-    private final UserRepository userRepository;
-    private final BadgeService badgeService;
+    private final ReputationEventRepository reputationEventRepository;
 
     // Reputation points for different actions
     public static final int QUESTION_UPVOTE = 5;
@@ -26,55 +31,59 @@ public class ReputationService {
     public static final int ACCEPTING_ANSWER = 2;
 
     @Transactional
-    public void updateReputationForQuestionVote(User user, boolean isUpvote) {
-        int points = isUpvote ? QUESTION_UPVOTE : QUESTION_DOWNVOTE;
-        updateUserReputation(user, points);
-        log.info("Updated reputation for user {} by {} points (question vote)", user.getUsername(), points);
+    public void updateReputationForQuestionVote(User author, Long questionId, Vote.VoteType previous, Vote.VoteType current) {
+        int points = votePoints(current, QUESTION_UPVOTE, QUESTION_DOWNVOTE)
+                - votePoints(previous, QUESTION_UPVOTE, QUESTION_DOWNVOTE);
+        if (points != 0) {
+            updateUserReputation(author, points, ReputationEvent.Reason.QUESTION_VOTE, questionId, null);
+            log.info("Updated reputation for user {} by {} points (question vote)", author.getUsername(), points);
+        }
     }
 
     @Transactional
-    public void updateReputationForAnswerVote(User user, boolean isUpvote) {
-        int points = isUpvote ? ANSWER_UPVOTE : ANSWER_DOWNVOTE;
-        updateUserReputation(user, points);
-        log.info("Updated reputation for user {} by {} points (answer vote)", user.getUsername(), points);
+    public void updateReputationForAnswerVote(User author, Long answerId, Vote.VoteType previous, Vote.VoteType current) {
+        int points = votePoints(current, ANSWER_UPVOTE, ANSWER_DOWNVOTE)
+                - votePoints(previous, ANSWER_UPVOTE, ANSWER_DOWNVOTE);
+        if (points != 0) {
+            updateUserReputation(author, points, ReputationEvent.Reason.ANSWER_VOTE, null, answerId);
+            log.info("Updated reputation for user {} by {} points (answer vote)", author.getUsername(), points);
+        }
     }
 
     @Transactional
     public void updateReputationForAcceptedAnswer(User answerAuthor, User questionAuthor) {
         // Answer author gets points for having their answer accepted
-        updateUserReputation(answerAuthor, ANSWER_ACCEPTED);
+        updateUserReputation(answerAuthor, ANSWER_ACCEPTED, ReputationEvent.Reason.ANSWER_ACCEPTED, null, null);
         log.info("Updated reputation for user {} by {} points (answer accepted)", answerAuthor.getUsername(), ANSWER_ACCEPTED);
 
         // Question author gets points for accepting an answer
-        updateUserReputation(questionAuthor, ACCEPTING_ANSWER);
+        updateUserReputation(questionAuthor, ACCEPTING_ANSWER, ReputationEvent.Reason.ACCEPTING_ANSWER, null, null);
         log.info("Updated reputation for user {} by {} points (accepting answer)", questionAuthor.getUsername(), ACCEPTING_ANSWER);
     }
 
-    @Transactional
-    public void updateReputationForNewQuestion(User user) {
-        // No reputation change for posting questions, but check for badges
-        badgeService.checkAndAwardBadges(user);
+    private void updateUserReputation(User user, int points, ReputationEvent.Reason reason, Long questionId, Long answerId) {
+        // Append-only insert; badge checks run when the aggregator applies it
+        ReputationEvent event = new ReputationEvent();
+        event.setUserId(user.getId());
+        event.setDelta(points);
+        event.setReason(reason);
+        event.setQuestionId(questionId);
+        event.setAnswerId(answerId);
+        reputationEventRepository.save(event);
     }
 
-    @Transactional
-    public void updateReputationForNewAnswer(User user) {
-        // No reputation change for posting answers, but check for badges
-        badgeService.checkAndAwardBadges(user);
-    }
-
-    private void updateUserReputation(User user, int points) {
-        int newReputation = Math.max(0, user.getReputation() + points); // Reputation can't go below 0
-        user.setReputation(newReputation);
-        userRepository.save(user);
-
-        // Check for reputation-based badges
-        badgeService.checkAndAwardBadges(user);
+    private static int votePoints(Vote.VoteType voteType, int upvotePoints, int downvotePoints) {
+        if (voteType == null) {
+            return 0;
+        }
+        return voteType == Vote.VoteType.UPVOTE ? upvotePoints : downvotePoints;
     }
 
     @Transactional(readOnly = true)
     public int calculateUserReputation(User user) {
-        // This method could be used to recalculate reputation from scratch if needed
-        // For now, we'll just return the stored reputation
-        return user.getReputation();
+        // Full recompute from the baseline and the ledger, independent of what has been aggregated so far.
+        // Unfloored like the aggregator's fold, so it matches users.reputation once the ledger is applied;
+        // the floor is applied only where reputation is shown.
+        return (int) reputationEventRepository.computeReputation(user.getId());
     }
 }
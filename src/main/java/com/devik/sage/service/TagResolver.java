@@ -0,0 +1,110 @@
+package com.devik.sage.service;
+
+import com.devik.sage.model.Tag;
+import com.devik.sage.repository.TagRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves tag names to ids for tagging a question: known names come from an in-memory
+ * cache, the rest from one IN lookup, and any still missing are created with one
+ * multi-row {@code INSERT ... ON CONFLICT DO NOTHING RETURNING}. A concurrent request
+ * creating the same tag makes our insert a no-op rather than a constraint violation.
+ */
+@Component
+@RequiredArgsConstructor
+public class TagResolver {
+
+    private final TagRepository tagRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Tags are never deleted, so a cached id stays valid
+    private final ConcurrentHashMap<String, Long> idsByName = new ConcurrentHashMap<>();
+
+    /**
+     * Returns detached Tag stand-ins carrying only id and name, enough to write the
+     * question_tags rows and render the tag list without loading the tags.
+     */
+    public Set<Tag> resolve(Set<String> tagNames) {
+        Map<String, Long> resolved = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        for (String name : tagNames) {
+            Long id = idsByName.get(name);
+            if (id != null) {
+                resolved.put(name, id);
+            } else {
+                missing.add(name);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<String, Long> found = toMap(tagRepository.findIdsByNames(missing));
+            idsByName.putAll(found);
+            resolved.putAll(found);
+            missing.removeAll(found.keySet());
+        }
+
+        if (!missing.isEmpty()) {
+            Map<String, Long> created = insertMissing(missing);
+            missing.removeAll(created.keySet());
+            // Rows another transaction inserted first were skipped by ON CONFLICT; read them back
+            if (!missing.isEmpty()) {
+                created.putAll(toMap(tagRepository.findIdsByNames(missing)));
+            }
+            resolved.putAll(created);
+            cacheAfterCommit(created);
+        }
+
+        return resolved.entrySet().stream()
+                .map(entry -> standIn(entry.getValue(), entry.getKey()))
+                .collect(Collectors.toSet());
+    }
+
+    private Map<String, Long> insertMissing(Set<String> names) {
+        List<String> ordered = new ArrayList<>(names);
+        String values = String.join(", ", Collections.nCopies(ordered.size(), "(nextval('tags_seq'), ?, now())"));
+        String sql = "INSERT INTO tags (id, name, created_at) VALUES " + values +
+                " ON CONFLICT (name) DO NOTHING RETURNING id, name";
+        Map<String, Long> created = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            created.put(rs.getString("name"), rs.getLong("id"));
+        }, ordered.toArray());
+        return created;
+    }
+
+    private void cacheAfterCommit(Map<String, Long> created) {
+        // A tag created by a transaction that rolls back must not stay in the cache
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    idsByName.putAll(created);
+                }
+            });
+        } else {
+            idsByName.putAll(created);
+        }
+    }
+
+    private static Map<String, Long> toMap(List<Object[]> rows) {
+        Map<String, Long> ids = new HashMap<>();
+        for (Object[] row : rows) {
+            ids.put((String) row[1], ((Number) row[0]).longValue());
+        }
+        return ids;
+    }
+
+    private static Tag standIn(Long id, String name) {
+        Tag tag = new Tag();
+        tag.setId(id);
+        tag.setName(name);
+        return tag;
+    }
+}
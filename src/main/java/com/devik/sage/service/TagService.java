@@ -3,6 +3,7 @@ package com.devik.sage.service;
 import com.devik.sage.model.Tag;
 import com.devik.sage.repository.TagRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,21 +15,48 @@ import java.util.List;
 public class TagService {
 
     private final TagRepository tagRepository;
+    private final FollowerReads followerReads;
 
     public List<Tag> getPopularTags(int limit) {
-        List<Tag> allPopularTags = tagRepository.findTopTags(limit);
-        return allPopularTags;
+        followerReads.apply("tags");
+        return tagRepository.findUsedOrderByQuestionCountDesc(PageRequest.of(0, limit));
     }
 
     public List<Tag> searchTags(String query) {
+        followerReads.apply("tags");
         return tagRepository.findByNameContainingIgnoreCase(query);
     }
 
     public List<Tag> getAllTags() {
+        followerReads.apply("tags");
         return tagRepository.findAll();
     }
 
-    public Integer getQuestionCountForTag(Long tagId) {
-        return tagRepository.countQuestionsByTagId(tagId);
+    /**
+     * Version of the whole tag list, from one aggregate over the tag counters. Read at the
+     * same staleness as the list, so it agrees with {@link #versionOf} on the loaded list.
+     * Scans every tag, so only conditional requests read it ahead of the list.
+     */
+    public String getTagListVersion() {
+        followerReads.apply("tags");
+        Object[] row = tagRepository.findListVersion().get(0);
+        return row[0] + "." + row[1];
+    }
+
+    /** The same version as {@link #getTagListVersion}, taken from the already loaded full list. */
+    public static String versionOf(List<Tag> allTags) {
+        return allTags.size() + "." + allTags.stream().mapToLong(Tag::getChangeCount).sum();
+    }
+
+    /**
+     * Version of a ranked slice of the tag list, from the ids in order and their change
+     * counts. The slice is read from an index, so it serves as its own version read.
+     */
+    public static String sliceVersionOf(List<Tag> tags) {
+        long hash = 1;
+        for (Tag tag : tags) {
+            hash = 31 * (31 * hash + tag.getId()) + tag.getChangeCount();
+        }
+        return tags.size() + "." + Long.toHexString(hash);
     }
 }
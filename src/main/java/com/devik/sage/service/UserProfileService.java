@@ -22,9 +22,11 @@ public class UserProfileService {
 
     private final UserRepository userRepository;
     private final BadgeService badgeService;
+    private final FollowerReads followerReads;
 
     @Transactional(readOnly = true)
     public Optional<UserProfileResponse> getUserProfile(String username) {
+        followerReads.apply("profiles");
         Optional<User> userOpt = userRepository.findByUsername(username);
         if (userOpt.isEmpty()) {
             return Optional.empty();
@@ -39,7 +41,7 @@ public class UserProfileService {
         profile.setBio(user.getBio());
         profile.setLocation(user.getLocation());
         profile.setWebsite(user.getWebsite());
-        profile.setReputation(user.getReputation());
+        profile.setReputation(Math.max(0, user.getReputation())); // Reputation can't show below 0
 
         // Use repository queries instead of lazy collection access to avoid ConcurrentModificationException
         profile.setQuestionCount((int) getQuestionCountForUser(user.getId()));
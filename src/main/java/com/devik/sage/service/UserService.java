@@ -2,6 +2,7 @@ package com.devik.sage.service;
 
 import com.devik.sage.model.User;
 import com.devik.sage.repository.UserRepository;
+import com.devik.sage.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -9,7 +10,6 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.Optional;
 
 @Service
@@ -45,10 +45,19 @@ public class UserService implements UserDetailsService {
         User user = findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
 
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getUsername())
-                .password(user.getPassword())
-                .authorities(new ArrayList<>()) // No roles for now, just basic auth
-                .build();
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getPassword());
+    }
+
+    /**
+     * Detached stand-in for the authenticated user built from the JWT principal, without a
+     * database round trip. Carries only id and username: enough for ownership checks,
+     * foreign-key writes and author names in responses. A write for a user deleted since the
+     * token was issued fails on the foreign key, which the exception handler turns into a 401.
+     */
+    public User getReference(AuthenticatedUser principal) {
+        User user = new User();
+        user.setId(principal.getId());
+        user.setUsername(principal.getUsername());
+        return user;
     }
 }
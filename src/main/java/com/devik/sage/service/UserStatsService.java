@@ -0,0 +1,56 @@
+package com.devik.sage.service;
+
+import com.devik.sage.model.Vote;
+import com.devik.sage.repository.UserStatsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps the {@code user_stats} counters in step with a user's activity and queues the
+ * badge rules that the change can affect.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class UserStatsService {
+
+    private final UserStatsRepository userStatsRepository;
+    private final BadgeService badgeService;
+
+    public void questionPosted(Long userId) {
+        userStatsRepository.adjust(userId, 1, 0, 0, 0, 0);
+        badgeService.queueCheck(userId, BadgeService.Trigger.QUESTION_POSTED);
+    }
+
+    public void questionDeleted(Long userId) {
+        userStatsRepository.adjust(userId, -1, 0, 0, 0, 0);
+    }
+
+    public void answerPosted(Long userId) {
+        userStatsRepository.adjust(userId, 0, 1, 0, 0, 0);
+        badgeService.queueCheck(userId, BadgeService.Trigger.ANSWER_POSTED);
+    }
+
+    public void answerDeleted(Long userId) {
+        userStatsRepository.adjust(userId, 0, -1, 0, 0, 0);
+    }
+
+    public void commentPosted(Long userId) {
+        userStatsRepository.adjust(userId, 0, 0, 1, 0, 0);
+        badgeService.queueCheck(userId, BadgeService.Trigger.COMMENT_POSTED);
+    }
+
+    public void commentDeleted(Long userId) {
+        userStatsRepository.adjust(userId, 0, 0, -1, 0, 0);
+    }
+
+    public void voteChanged(Long voterId, Vote.VoteType previous, Vote.VoteType current) {
+        int upvotes = (current == Vote.VoteType.UPVOTE ? 1 : 0) - (previous == Vote.VoteType.UPVOTE ? 1 : 0);
+        int downvotes = (current == Vote.VoteType.DOWNVOTE ? 1 : 0) - (previous == Vote.VoteType.DOWNVOTE ? 1 : 0);
+        userStatsRepository.adjust(voterId, 0, 0, 0, upvotes, downvotes);
+        if (current != null) {
+            badgeService.queueCheck(voterId, BadgeService.Trigger.VOTE_CAST);
+        }
+    }
+}
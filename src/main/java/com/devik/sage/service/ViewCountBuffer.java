@@ -0,0 +1,98 @@
+package com.devik.sage.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind buffer for question view counts. Reads only bump an in-memory counter;
+ * pending counts are flushed as one batched {@code view_count = view_count + ?} update.
+ */
+@Component
+@Slf4j
+public class ViewCountBuffer implements MeterBinder {
+
+    private static final String FLUSH_SQL = "UPDATE questions SET view_count = view_count + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // ConcurrentHashMap locks per bin, so increments on different questions don't contend
+    private final ConcurrentHashMap<Long, Long> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder recorded = new LongAdder();
+
+    public ViewCountBuffer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void record(Long questionId) {
+        pending.merge(questionId, 1L, Long::sum);
+        recorded.increment();
+    }
+
+    public long getPending(Long questionId) {
+        return pending.getOrDefault(questionId, 0L);
+    }
+
+    @Scheduled(fixedDelayString = "${sage.views.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // remove() hands each count over atomically; increments that race with it start a fresh entry
+        List<Object[]> batch = new ArrayList<>();
+        for (Long questionId : pending.keySet()) {
+            Long views = pending.remove(questionId);
+            if (views != null) {
+                batch.add(new Object[]{views, questionId});
+            }
+        }
+
+        try {
+            // One transaction, so a failed flush leaves no rows updated and the re-add below can't double count
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, batch));
+            log.debug("Flushed view counts for {} questions", batch.size());
+        } catch (RuntimeException e) {
+            // Put the counts back so the next flush retries them
+            for (Object[] row : batch) {
+                pending.merge((Long) row[1], (Long) row[0], Long::sum);
+            }
+            log.warn("Failed to flush view counts for {} questions, will retry", batch.size(), e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("sage.views.recorded", recorded, LongAdder::sum)
+                .description("Question views recorded")
+                .register(registry);
+        Gauge.builder("sage.views.pending.questions", pending, Map::size)
+                .description("Questions with view counts not yet flushed")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        if (!pending.isEmpty()) {
+            log.warn("Dropping {} pending view counts at shutdown", pending.size());
+        }
+    }
+}
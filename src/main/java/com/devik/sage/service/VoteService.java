@@ -0,0 +1,182 @@
+package com.devik.sage.service;
+
+import com.devik.sage.dto.VoteResponse;
+import com.devik.sage.exception.ResourceNotFoundException;
+import com.devik.sage.model.Answer;
+import com.devik.sage.model.Question;
+import com.devik.sage.model.User;
+import com.devik.sage.model.Vote;
+import com.devik.sage.model.VoteTally;
+import com.devik.sage.repository.AnswerRepository;
+import com.devik.sage.repository.QuestionRepository;
+import com.devik.sage.repository.VoteRepository;
+import com.devik.sage.repository.VoteTallyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Casts, switches and retracts votes. The votes table's unique constraints make a vote
+ * idempotent per user and post, and its version column lets only one of two concurrent
+ * switches or retracts apply; score changes go to a randomly chosen VoteTally shard
+ * rather than the post row, and reputation changes are appended to the ledger.
+ */
+@Service
+@Slf4j
+public class VoteService {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final VoteRepository voteRepository;
+    private final VoteTallyRepository voteTallyRepository;
+    private final QuestionRepository questionRepository;
+    private final AnswerRepository answerRepository;
+    private final ReputationService reputationService;
+    private final UserStatsService userStatsService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${sage.votes.tally-shards:16}")
+    private int tallyShards;
+
+    public VoteService(VoteRepository voteRepository,
+                       VoteTallyRepository voteTallyRepository,
+                       QuestionRepository questionRepository,
+                       AnswerRepository answerRepository,
+                       ReputationService reputationService,
+                       UserStatsService userStatsService,
+                       PlatformTransactionManager transactionManager) {
+        this.voteRepository = voteRepository;
+        this.voteTallyRepository = voteTallyRepository;
+        this.questionRepository = questionRepository;
+        this.answerRepository = answerRepository;
+        this.reputationService = reputationService;
+        this.userStatsService = userStatsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public VoteResponse voteOnQuestion(Long questionId, User voter, String vote) {
+        Vote.VoteType requested = parseVote(vote);
+        return withRetry(() -> transactionTemplate.execute(status -> {
+            Question question = questionRepository.findById(questionId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Question not found"));
+            checkNotOwnPost(question.getUser(), voter);
+
+            Optional<Vote> existing = voteRepository.findByUserIdAndQuestionId(voter.getId(), questionId);
+            Vote.VoteType previous = existing.map(Vote::getVoteType).orElse(null);
+            if (previous != requested) {
+                applyVote(existing, requested, voter, question, null);
+                recordTally(VoteTally.PostType.QUESTION, questionId, previous, requested);
+                reputationService.updateReputationForQuestionVote(question.getUser(), questionId, previous, requested);
+            }
+            return toResponse(VoteTally.PostType.QUESTION, questionId,
+                    question.getUpvoteCount(), question.getDownvoteCount(), requested);
+        }));
+    }
+
+    public VoteResponse voteOnAnswer(Long answerId, User voter, String vote) {
+        Vote.VoteType requested = parseVote(vote);
+        return withRetry(() -> transactionTemplate.execute(status -> {
+            Answer answer = answerRepository.findById(answerId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Answer not found"));
+            checkNotOwnPost(answer.getUser(), voter);
+
+            Optional<Vote> existing = voteRepository.findByUserIdAndAnswerId(voter.getId(), answerId);
+            Vote.VoteType previous = existing.map(Vote::getVoteType).orElse(null);
+            if (previous != requested) {
+                applyVote(existing, requested, voter, null, answer);
+                recordTally(VoteTally.PostType.ANSWER, answerId, previous, requested);
+                reputationService.updateReputationForAnswerVote(answer.getUser(), answerId, previous, requested);
+            }
+            return toResponse(VoteTally.PostType.ANSWER, answerId,
+                    answer.getUpvoteCount(), answer.getDownvoteCount(), requested);
+        }));
+    }
+
+    private void applyVote(Optional<Vote> existing, Vote.VoteType requested, User voter, Question question, Answer answer) {
+        if (requested == null) {
+            existing.ifPresent(voteRepository::delete);
+            // Flush now so a concurrent switch or retract fails the version check inside this attempt
+            voteRepository.flush();
+        } else if (existing.isPresent()) {
+            existing.get().setVoteType(requested);
+            voteRepository.flush();
+        } else {
+            Vote vote = new Vote();
+            vote.setUser(voter);
+            vote.setQuestion(question);
+            vote.setAnswer(answer);
+            vote.setVoteType(requested);
+            // Flush now so a concurrent duplicate hits the unique constraint inside this attempt
+            voteRepository.saveAndFlush(vote);
+        }
+        userStatsService.voteChanged(voter.getId(), existing.map(Vote::getVoteType).orElse(null), requested);
+    }
+
+    private void recordTally(VoteTally.PostType postType, Long postId, Vote.VoteType previous, Vote.VoteType requested) {
+        int upvotes = count(requested, Vote.VoteType.UPVOTE) - count(previous, Vote.VoteType.UPVOTE);
+        int downvotes = count(requested, Vote.VoteType.DOWNVOTE) - count(previous, Vote.VoteType.DOWNVOTE);
+        int shard = ThreadLocalRandom.current().nextInt(tallyShards);
+        voteTallyRepository.add(postType.name(), postId, shard, upvotes, downvotes);
+    }
+
+    private VoteResponse toResponse(VoteTally.PostType postType, Long postId, int storedUp, int storedDown,
+                                    Vote.VoteType userVote) {
+        // Stored counters plus whatever has not been folded in yet
+        Object[] pending = voteTallyRepository.sumPending(postType.name(), postId).get(0);
+        int upvotes = storedUp + ((Number) pending[0]).intValue();
+        int downvotes = storedDown + ((Number) pending[1]).intValue();
+        return new VoteResponse(postId, upvotes, downvotes, upvotes - downvotes, formatVote(userVote));
+    }
+
+    private <T> T withRetry(Supplier<T> attempt) {
+        for (int i = 1; ; i++) {
+            try {
+                return attempt.get();
+            } catch (DataIntegrityViolationException | TransientDataAccessException e) {
+                // Duplicate or stale vote from a concurrent request by the same user, or a serialization retry
+                if (i >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Retrying vote after {}", e.getClass().getSimpleName());
+            }
+        }
+    }
+
+    private static void checkNotOwnPost(User author, User voter) {
+        if (author.getId().equals(voter.getId())) {
+            throw new IllegalArgumentException("You cannot vote on your own post");
+        }
+    }
+
+    private static Vote.VoteType parseVote(String vote) {
+        if (vote == null) {
+            throw new IllegalArgumentException("Vote must be one of: up, down, none");
+        }
+        return switch (vote.toLowerCase()) {
+            case "up", "upvote" -> Vote.VoteType.UPVOTE;
+            case "down", "downvote" -> Vote.VoteType.DOWNVOTE;
+            case "none", "retract" -> null;
+            default -> throw new IllegalArgumentException("Vote must be one of: up, down, none");
+        };
+    }
+
+    private static String formatVote(Vote.VoteType voteType) {
+        if (voteType == null) {
+            return "none";
+        }
+        return voteType == Vote.VoteType.UPVOTE ? "up" : "down";
+    }
+
+    private static int count(Vote.VoteType actual, Vote.VoteType expected) {
+        return actual == expected ? 1 : 0;
+    }
+}
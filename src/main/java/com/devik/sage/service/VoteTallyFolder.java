@@ -0,0 +1,92 @@
+package com.devik.sage.service;
+
+import com.devik.sage.model.VoteTally;
+import com.devik.sage.repository.VoteTallyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves pending vote deltas from the VoteTally shards into the stored question and
+ * answer counters. Subtracts exactly the amounts it read, so votes landing in a shard
+ * while a fold runs are kept for the next one.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VoteTallyFolder {
+
+    private final VoteTallyRepository voteTallyRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${sage.votes.fold-batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${sage.votes.fold-interval-ms:2000}")
+    @Transactional
+    public int fold() {
+        List<Object[]> rows = voteTallyRepository.findBatch(batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> shardUpdates = new ArrayList<>();
+        Map<Long, int[]> questionDeltas = new HashMap<>();
+        Map<Long, int[]> answerDeltas = new HashMap<>();
+        for (Object[] row : rows) {
+            String postType = (String) row[0];
+            Long postId = ((Number) row[1]).longValue();
+            int shard = ((Number) row[2]).intValue();
+            int upvotes = ((Number) row[3]).intValue();
+            int downvotes = ((Number) row[4]).intValue();
+
+            shardUpdates.add(new Object[]{upvotes, downvotes, postType, postId, shard});
+            Map<Long, int[]> deltas = VoteTally.PostType.QUESTION.name().equals(postType) ? questionDeltas : answerDeltas;
+            int[] delta = deltas.computeIfAbsent(postId, id -> new int[2]);
+            delta[0] += upvotes;
+            delta[1] += downvotes;
+        }
+
+        jdbcTemplate.batchUpdate("UPDATE vote_tallies SET upvotes = upvotes - ?, downvotes = downvotes - ? " +
+                "WHERE post_type = ? AND post_id = ? AND shard = ?", shardUpdates);
+        applyDeltas("questions", questionDeltas);
+        applyDeltas("answers", answerDeltas);
+        recordAnswerQuestionChanges(answerDeltas);
+        jdbcTemplate.update("DELETE FROM vote_tallies WHERE upvotes = 0 AND downvotes = 0");
+
+        log.debug("Folded {} vote tally shards into {} questions and {} answers",
+                rows.size(), questionDeltas.size(), answerDeltas.size());
+        return rows.size();
+    }
+
+    private void applyDeltas(String table, Map<Long, int[]> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> updates = new ArrayList<>();
+        deltas.forEach((postId, delta) -> updates.add(new Object[]{delta[0], delta[1], delta[0] - delta[1], postId}));
+        String changeCount = "questions".equals(table) ? ", change_count = change_count + 1" : "";
+        jdbcTemplate.batchUpdate("UPDATE " + table + " SET upvote_count = upvote_count + ?, " +
+                "downvote_count = downvote_count + ?, score = score + ?" + changeCount + " WHERE id = ?", updates);
+    }
+
+    // Answer scores are part of the question page, so their question's version moves too
+    private void recordAnswerQuestionChanges(Map<Long, int[]> answerDeltas) {
+        if (answerDeltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> answerIds = new ArrayList<>();
+        answerDeltas.keySet().forEach(answerId -> answerIds.add(new Object[]{answerId}));
+        jdbcTemplate.batchUpdate("UPDATE questions SET change_count = change_count + 1 " +
+                "WHERE id = (SELECT question_id FROM answers WHERE id = ?)", answerIds);
+    }
+}
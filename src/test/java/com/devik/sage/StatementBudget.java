@@ -0,0 +1,26 @@
+package com.devik.sage;
+
+import com.devik.sage.config.StatementStats;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * MockMvc matchers over the SQL statements a request ran, as counted by
+ * {@code StatementBudgetFilter}: {@code .andExpect(StatementBudget.atMost(3))}.
+ */
+public final class StatementBudget {
+
+    private StatementBudget() {
+    }
+
+    public static ResultMatcher atMost(int statements) {
+        return result -> {
+            StatementStats stats = (StatementStats) result.getRequest().getAttribute(StatementStats.REQUEST_ATTRIBUTE);
+            assertNotNull(stats, "No statement stats on the request; is StatementBudgetFilter enabled?");
+            assertTrue(stats.getCount() <= statements, () -> "Expected at most " + statements
+                    + " SQL statements but the request ran " + stats.getCount() + ":" + stats.describe());
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package com.devik.sage;
+
+import com.devik.sage.model.User;
+
+/**
+ * Unsaved {@link User} fixtures for tests: {@code userRepository.save(TestUsers.newUser("alice_" + run))}.
+ */
+public final class TestUsers {
+
+    private TestUsers() {
+    }
+
+    public static User newUser(String username) {
+        return newUser(username, 0);
+    }
+
+    public static User newUser(String username, int reputation) {
+        return User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("password")
+                .reputation(reputation)
+                .viewsCount(0)
+                .build();
+    }
+}
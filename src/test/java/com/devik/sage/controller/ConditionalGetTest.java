@@ -0,0 +1,121 @@
+package com.devik.sage.controller;
+
+import com.devik.sage.model.Question;
+import com.devik.sage.model.User;
+import com.devik.sage.repository.QuestionRepository;
+import com.devik.sage.repository.UserRepository;
+import com.devik.sage.security.AuthenticatedUser;
+import com.devik.sage.security.JwtUtil;
+import com.devik.sage.service.AnswerService;
+import com.devik.sage.service.CommentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static com.devik.sage.TestUsers.newUser;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private AnswerService answerService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void questionPageIsNotModifiedUntilAnAnswerArrives() throws Exception {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        User author = userRepository.save(newUser("cg_author_" + run));
+
+        Question question = new Question();
+        question.setTitle("Conditional GET question " + run);
+        question.setBody("Body");
+        question.setUser(author);
+        question = questionRepository.save(question);
+
+        String etag = mockMvc.perform(get("/api/questions/{id}/with-answers", question.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/api/questions/{id}/with-answers", question.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        answerService.createAnswer("An answer", question.getId(), userRepository.save(newUser("cg_answerer_" + run)));
+
+        String changed = mockMvc.perform(get("/api/questions/{id}/with-answers", question.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, changed);
+    }
+
+    @Test
+    void commentsPageIsNotModifiedUntilACommentArrives() throws Exception {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        User author = userRepository.save(newUser("cg_commenter_" + run));
+        String bearer = "Bearer " + jwtUtil.generateToken(new AuthenticatedUser(author.getId(), author.getUsername()));
+
+        Question question = new Question();
+        question.setTitle("Conditional GET comments " + run);
+        question.setBody("Body");
+        question.setUser(author);
+        question = questionRepository.save(question);
+
+        // The unconditional tag comes from the comments query, the conditional one from the version read
+        String etag = mockMvc.perform(get("/api/comments/question/{id}/page", question.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/api/comments/question/{id}/page", question.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        commentService.createCommentForQuestion(question.getId(), "A comment", author);
+
+        mockMvc.perform(get("/api/comments/question/{id}/page", question.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void tagListIsNotModifiedWhileTagsAreUnchanged() throws Exception {
+        String etag = mockMvc.perform(get("/api/tags"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/api/tags").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+}
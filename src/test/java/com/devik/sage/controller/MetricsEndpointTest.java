@@ -0,0 +1,78 @@
+package com.devik.sage.controller;
+
+import com.devik.sage.model.Question;
+import com.devik.sage.model.User;
+import com.devik.sage.repository.QuestionRepository;
+import com.devik.sage.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+@AutoConfigureObservability
+class MetricsEndpointTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Test
+    void prometheusScrapeOnManagementPortCoversEveryLayer() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        User author = userRepository.save(User.builder()
+                .username("metrics_author_" + run)
+                .email("metrics_author_" + run + "@example.com")
+                .password("password")
+                .reputation(0)
+                .viewsCount(0)
+                .build());
+
+        Question question = new Question();
+        question.setTitle("Metrics question " + run);
+        question.setBody("Body");
+        question.setUser(author);
+        question = questionRepository.save(question);
+
+        assertThat(restTemplate.getForEntity("/api/questions/{id}", String.class, question.getId()).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<String> scrape = restTemplate.getForEntity(
+                "http://localhost:" + managementPort + "/actuator/prometheus", String.class);
+        assertThat(scrape.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(scrape.getBody())
+                // Templated URI, not the question id
+                .contains("uri=\"/api/questions/{id}\"")
+                .contains("spring_data_repository_invocations_seconds_count")
+                .contains("hibernate_statements_total")
+                .contains("hikaricp_connections_pending")
+                .contains("jvm_memory_used_bytes")
+                .contains("sage_views_recorded_total")
+                .contains("sage_badges_awarded_total")
+                .contains("sage_reputation_updates_total");
+    }
+
+    @Test
+    void applicationPortServesProbesButNotActuator() {
+        assertThat(restTemplate.getForEntity("/readyz", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(restTemplate.getForEntity("/livez", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(restTemplate.getForEntity("/actuator/prometheus", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+}
@@ -0,0 +1,87 @@
+package com.devik.sage.controller;
+
+import com.devik.sage.model.Question;
+import com.devik.sage.model.Tag;
+import com.devik.sage.model.User;
+import com.devik.sage.repository.QuestionRepository;
+import com.devik.sage.repository.TagRepository;
+import com.devik.sage.repository.UserRepository;
+import com.devik.sage.service.AnswerService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static com.devik.sage.TestUsers.newUser;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class QuestionPageQueryCountTest {
+
+    private static final int ANSWERS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private AnswerService answerService;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Test
+    void questionPageLoadsInTwoStatements() throws Exception {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        User author = userRepository.save(newUser("qp_author_" + run));
+
+        Question question = new Question();
+        question.setTitle("Question page query count " + run);
+        question.setBody("Body");
+        question.setUser(author);
+        question.setTags(Set.of(newTag("qp-java-" + run), newTag("qp-spring-" + run)));
+        question = questionRepository.save(question);
+
+        for (int i = 0; i < ANSWERS; i++) {
+            answerService.createAnswer("Answer " + i, question.getId(),
+                    userRepository.save(newUser("qp_answerer" + i + "_" + run)));
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/questions/{id}/with-answers", question.getId()).param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.question.tags.length()").value(2))
+                .andExpect(jsonPath("$.answers.content.length()").value(ANSWERS))
+                .andExpect(jsonPath("$.answers.totalElements").value(ANSWERS));
+
+        // Question + author + tags, then the answer page + authors; no count query, no per-answer loads
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    private Tag newTag(String name) {
+        Tag tag = new Tag();
+        tag.setName(name);
+        return tagRepository.save(tag);
+    }
+}
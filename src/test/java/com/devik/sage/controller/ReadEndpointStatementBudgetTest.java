@@ -0,0 +1,258 @@
+package com.devik.sage.controller;
+
+import com.devik.sage.model.Answer;
+import com.devik.sage.model.Question;
+import com.devik.sage.model.User;
+import com.devik.sage.repository.UserRepository;
+import com.devik.sage.security.AuthenticatedUser;
+import com.devik.sage.security.JwtUtil;
+import com.devik.sage.service.AnswerService;
+import com.devik.sage.service.CommentService;
+import com.devik.sage.service.QuestionService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.devik.sage.StatementBudget.atMost;
+import static com.devik.sage.TestUsers.newUser;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement ceilings for every read endpoint. Each page holds {@value #ROWS} rows by as many
+ * different authors, so a per-row query would push an endpoint well past its ceiling. The
+ * ceilings are upper bounds with a little headroom, not exact counts. The streaming export
+ * is left out: its statements run on an async thread after the request thread returns.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadEndpointStatementBudgetTest {
+
+    private static final int ROWS = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Autowired
+    private AnswerService answerService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private String searchTerm;
+    private String tag;
+    private Question question;
+    private Answer answer;
+    private List<Long> answerIds;
+    private User viewer;
+    private String bearer;
+
+    @BeforeAll
+    void createFixture() throws InterruptedException {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        searchTerm = "budget" + run;
+        tag = "budget-" + run;
+
+        List<User> authors = new ArrayList<>();
+        for (int i = 0; i <= ROWS; i++) {
+            authors.add(userRepository.save(newUser("sb" + i + "_" + run)));
+        }
+        viewer = authors.get(0);
+        bearer = "Bearer " + jwtUtil.generateToken(new AuthenticatedUser(viewer.getId(), viewer.getUsername()));
+
+        // One more question than a page holds, so offset pages also need their count query
+        for (int i = 0; i <= ROWS; i++) {
+            Question posted = new Question();
+            posted.setTitle("Statement budget question " + i + " " + searchTerm);
+            posted.setBody("Body " + searchTerm);
+            question = questionService.createQuestion(posted, Set.of(tag, tag + "-other"), authors.get(i));
+        }
+
+        answerIds = new ArrayList<>();
+        for (int i = 0; i <= ROWS; i++) {
+            answer = answerService.createAnswer("Answer " + i, question.getId(), authors.get(i));
+            answerIds.add(answer.getId());
+        }
+        for (int i = 0; i < ROWS; i++) {
+            commentService.createCommentForQuestion(question.getId(), "Question comment " + i, authors.get(i));
+            commentService.createCommentForAnswer(answer.getId(), "Answer comment " + i, authors.get(i));
+        }
+
+        // Index updates are applied after commit on the index thread
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (questionService.searchQuestions(searchTerm, 0, ROWS).getTotalElements() <= ROWS) {
+            assertTrue(System.currentTimeMillis() < deadline, "Questions were not indexed in time");
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    void questionList() throws Exception {
+        mockMvc.perform(get("/api/questions/public").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(ROWS))
+                .andExpect(atMost(4));
+    }
+
+    @Test
+    void questionListByCursor() throws Exception {
+        mockMvc.perform(get("/api/questions/public/cursor").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(ROWS))
+                .andExpect(atMost(3));
+    }
+
+    @Test
+    void question() throws Exception {
+        mockMvc.perform(get("/api/questions/{id}", question.getId()))
+                .andExpect(status().isOk())
+                .andExpect(atMost(1));
+    }
+
+    @Test
+    void questionWithAnswers() throws Exception {
+        mockMvc.perform(get("/api/questions/{id}/with-answers", question.getId()).param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.answers.content.length()").value(ROWS))
+                .andExpect(atMost(2));
+    }
+
+    @Test
+    void search() throws Exception {
+        mockMvc.perform(get("/api/questions/search").param("q", searchTerm).param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(ROWS))
+                .andExpect(atMost(3));
+    }
+
+    @Test
+    void searchByCursor() throws Exception {
+        mockMvc.perform(get("/api/questions/search/cursor").param("q", searchTerm).param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(ROWS))
+                .andExpect(atMost(3));
+    }
+
+    @Test
+    void blankSearch() throws Exception {
+        // Nothing to match, so not even the page load runs
+        mockMvc.perform(get("/api/questions/search").param("q", " ").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(0))
+                .andExpect(atMost(0));
+    }
+
+    @Test
+    void questionsByTag() throws Exception {
+        mockMvc.perform(get("/api/questions/tagged/{tag}", tag).param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(ROWS))
+                .andExpect(atMost(4));
+    }
+
+    @Test
+    void questionsByTagByCursor() throws Exception {
+        mockMvc.perform(get("/api/questions/tagged/{tag}/cursor", tag).param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(ROWS))
+                .andExpect(atMost(3));
+    }
+
+    @Test
+    void answers() throws Exception {
+        // Answer page, count, then authors and the shared question in batches
+        mockMvc.perform(get("/api/questions/{id}/answers", question.getId()).param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(ROWS))
+                .andExpect(atMost(6));
+    }
+
+    @Test
+    void answersByCursor() throws Exception {
+        mockMvc.perform(get("/api/questions/{id}/answers/cursor", question.getId()).param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(ROWS))
+                .andExpect(atMost(6));
+    }
+
+    @Test
+    void questionComments() throws Exception {
+        mockMvc.perform(get("/api/comments/question/{id}", question.getId()).header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(ROWS))
+                .andExpect(atMost(5));
+    }
+
+    @Test
+    void answerComments() throws Exception {
+        mockMvc.perform(get("/api/comments/answer/{id}", answer.getId()).header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(ROWS))
+                .andExpect(atMost(6));
+    }
+
+    @Test
+    void commentsForQuestionPage() throws Exception {
+        // 0 is no answer's id; it must not get a group
+        List<String> requested = new ArrayList<>(answerIds.stream().map(String::valueOf).toList());
+        requested.add("0");
+        mockMvc.perform(get("/api/comments/question/{id}/page", question.getId())
+                        .param("answerIds", requested.toArray(String[]::new))
+                        .header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.answers.length()").value(answerIds.size()))
+                .andExpect(jsonPath("$.answers['0']").doesNotExist())
+                .andExpect(atMost(1));
+    }
+
+    @Test
+    void tags() throws Exception {
+        mockMvc.perform(get("/api/tags"))
+                .andExpect(status().isOk())
+                .andExpect(atMost(1));
+    }
+
+    @Test
+    void popularTags() throws Exception {
+        mockMvc.perform(get("/api/tags/popular").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(atMost(1));
+    }
+
+    @Test
+    void tagSearch() throws Exception {
+        mockMvc.perform(get("/api/tags/search").param("query", tag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(atMost(1));
+    }
+
+    @Test
+    void userProfile() throws Exception {
+        mockMvc.perform(get("/api/users/{username}/profile", viewer.getUsername()).header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andExpect(atMost(5));
+    }
+}
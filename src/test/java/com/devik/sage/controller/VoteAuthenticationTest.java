@@ -0,0 +1,88 @@
+package com.devik.sage.controller;
+
+import com.devik.sage.model.Question;
+import com.devik.sage.model.User;
+import com.devik.sage.repository.QuestionRepository;
+import com.devik.sage.repository.UserRepository;
+import com.devik.sage.security.AuthenticatedUser;
+import com.devik.sage.security.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static com.devik.sage.TestUsers.newUser;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class VoteAuthenticationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void anonymousVotesAreUnauthorized() throws Exception {
+        mockMvc.perform(post("/api/questions/{id}/votes", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"vote\":\"up\"}"))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(post("/api/questions/{id}/answers/{answerId}/votes", 1, 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"vote\":\"up\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void deletedUsersTokenIsUnauthorized() throws Exception {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        User author = userRepository.save(newUser("va_author_" + run));
+        User voter = userRepository.save(newUser("va_voter_" + run));
+        String bearer = "Bearer " + jwtUtil.generateToken(new AuthenticatedUser(voter.getId(), voter.getUsername()));
+
+        Question question = new Question();
+        question.setTitle("Vote authentication question " + run);
+        question.setBody("Body");
+        question.setUser(author);
+        question = questionRepository.save(question);
+
+        userRepository.delete(voter);
+
+        mockMvc.perform(post("/api/questions/{id}/votes", question.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"vote\":\"up\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void deletedUsersTokenCannotAskQuestions() throws Exception {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        User asker = userRepository.save(newUser("va_asker_" + run));
+        String bearer = "Bearer " + jwtUtil.generateToken(new AuthenticatedUser(asker.getId(), asker.getUsername()));
+
+        userRepository.delete(asker);
+
+        mockMvc.perform(post("/api/questions")
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"A question from a deleted user\",\"content\":\"Body\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,118 @@
+package com.devik.sage.service;
+
+import com.devik.sage.model.Answer;
+import com.devik.sage.model.Question;
+import com.devik.sage.model.User;
+import com.devik.sage.model.Vote;
+import com.devik.sage.repository.QuestionRepository;
+import com.devik.sage.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static com.devik.sage.TestUsers.newUser;
+
+/**
+ * Answer and vote insert throughput with one statement round trip per row (what identity
+ * ids forced, since Hibernate must read each generated id back) against JDBC-batched
+ * inserts on pooled sequence ids. Run against a live database with
+ * {@code ./gradlew test --tests '*InsertBatchingBenchmarkTest' -Dsage.benchmarks=true}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "sage.benchmarks", matches = "true")
+class InsertBatchingBenchmarkTest {
+
+    private static final int ROWS = 2_000;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Test
+    void answerAndVoteInsertThroughput() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        User author = userRepository.save(newUser("bench_author_" + run));
+        User voter = userRepository.save(newUser("bench_voter_" + run));
+
+        Question question = new Question();
+        question.setTitle("Insert batching benchmark " + run);
+        question.setBody("Body");
+        question.setUser(author);
+        Question saved = questionRepository.save(question);
+
+        // Warm-up, also provides the answers the votes below point at
+        List<Answer> targets = tx.execute(status -> insert(i -> newAnswer(saved, author), 2 * ROWS, false));
+
+        report("answers", ROWS,
+                time(() -> tx.execute(status -> insert(i -> newAnswer(saved, author), ROWS, true))),
+                time(() -> tx.execute(status -> insert(i -> newAnswer(saved, author), ROWS, false))));
+        report("votes", ROWS,
+                time(() -> tx.execute(status -> insert(i -> newVote(voter, targets.get(i)), ROWS, true))),
+                time(() -> tx.execute(status -> insert(i -> newVote(voter, targets.get(ROWS + i)), ROWS, false))));
+    }
+
+    private <T> List<T> insert(Function<Integer, T> factory, int rows, boolean flushEachRow) {
+        List<T> inserted = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            T entity = factory.apply(i);
+            entityManager.persist(entity);
+            if (flushEachRow) {
+                entityManager.flush();
+            }
+            inserted.add(entity);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return inserted;
+    }
+
+    private static long time(Runnable work) {
+        long started = System.nanoTime();
+        work.run();
+        return System.nanoTime() - started;
+    }
+
+    private static void report(String entity, int rows, long rowByRowNanos, long batchedNanos) {
+        System.out.printf("%-8s row-by-row: %8.0f rows/s   batched: %8.0f rows/s   (%.1fx)%n",
+                entity, rowsPerSecond(rows, rowByRowNanos), rowsPerSecond(rows, batchedNanos),
+                (double) rowByRowNanos / batchedNanos);
+    }
+
+    private static double rowsPerSecond(int rows, long nanos) {
+        return rows / (nanos / 1_000_000_000.0);
+    }
+
+    private static Answer newAnswer(Question question, User author) {
+        Answer answer = new Answer();
+        answer.setBody("Benchmark answer");
+        answer.setQuestion(question);
+        answer.setUser(author);
+        return answer;
+    }
+
+    private static Vote newVote(User voter, Answer answer) {
+        Vote vote = new Vote();
+        vote.setUser(voter);
+        vote.setAnswer(answer);
+        vote.setVoteType(Vote.VoteType.UPVOTE);
+        return vote;
+    }
+}
@@ -0,0 +1,186 @@
+package com.devik.sage.service;
+
+import com.devik.sage.model.Answer;
+import com.devik.sage.model.Question;
+import com.devik.sage.model.User;
+import com.devik.sage.model.Vote;
+import com.devik.sage.repository.AnswerRepository;
+import com.devik.sage.repository.QuestionRepository;
+import com.devik.sage.repository.UserRepository;
+import com.devik.sage.repository.VoteRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.devik.sage.TestUsers.newUser;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Keep the scheduled background jobs out of the way; the test drains them itself
+@SpringBootTest(properties = {
+        "sage.votes.fold-interval-ms=3600000",
+        "sage.reputation.aggregate-interval-ms=3600000"
+})
+class VoteServiceConcurrencyTest {
+
+    private static final int VOTERS = 60;
+    private static final int STARTING_REPUTATION = 10_000;
+
+    @Autowired
+    private VoteService voteService;
+
+    @Autowired
+    private VoteTallyFolder voteTallyFolder;
+
+    @Autowired
+    private ReputationAggregator reputationAggregator;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private AnswerRepository answerRepository;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Test
+    void concurrentVotesOnOneAnswerKeepTotalsExact() throws Exception {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        User author = userRepository.save(newUser("author_" + run, STARTING_REPUTATION));
+        Long answerId = newAnswer(author, run).getId();
+
+        List<User> voters = new ArrayList<>();
+        for (int i = 0; i < VOTERS; i++) {
+            voters.add(userRepository.save(newUser("voter" + i + "_" + run, 0)));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        int expectedUpvotes = 0;
+        for (int i = 0; i < VOTERS; i++) {
+            User voter = voters.get(i);
+            switch (i % 3) {
+                case 0 -> {
+                    // The same upvote sent twice at once must count once
+                    futures.add(pool.submit(() -> vote(start, answerId, voter, "up")));
+                    futures.add(pool.submit(() -> vote(start, answerId, voter, "up")));
+                    expectedUpvotes++;
+                }
+                case 1 -> {
+                    // Switch from down to up
+                    futures.add(pool.submit(() -> vote(start, answerId, voter, "down", "up")));
+                    expectedUpvotes++;
+                }
+                default ->
+                    // Upvote then retract
+                    futures.add(pool.submit(() -> vote(start, answerId, voter, "up", "none")));
+            }
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        drainBackgroundJobs();
+
+        Answer reloaded = answerRepository.findById(answerId).orElseThrow();
+        int storedUpvotes = voteRepository.countByAnswerAndVoteType(reloaded, Vote.VoteType.UPVOTE);
+
+        assertEquals(expectedUpvotes, storedUpvotes);
+        assertEquals(expectedUpvotes, reloaded.getUpvoteCount());
+        assertEquals(0, reloaded.getDownvoteCount());
+        assertEquals(expectedUpvotes, reloaded.getScore());
+        assertEquals(STARTING_REPUTATION + expectedUpvotes * ReputationService.ANSWER_UPVOTE,
+                userRepository.findById(author.getId()).orElseThrow().getReputation());
+    }
+
+    @Test
+    void concurrentSwitchAndRetractBySameUserApplyOnce() throws Exception {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        User author = userRepository.save(newUser("author_" + run, STARTING_REPUTATION));
+        Long answerId = newAnswer(author, run).getId();
+
+        List<User> voters = new ArrayList<>();
+        for (int i = 0; i < VOTERS; i++) {
+            User voter = userRepository.save(newUser("switcher" + i + "_" + run, 0));
+            voteService.voteOnAnswer(answerId, voter, "up");
+            voters.add(voter);
+        }
+
+        // Each voter switches to down and retracts at the same time; whichever wins, the
+        // other must either apply on top of it or not at all, never against the stale upvote
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (User voter : voters) {
+            futures.add(pool.submit(() -> vote(start, answerId, voter, "down")));
+            futures.add(pool.submit(() -> vote(start, answerId, voter, "none")));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        drainBackgroundJobs();
+
+        Answer reloaded = answerRepository.findById(answerId).orElseThrow();
+        int storedUpvotes = voteRepository.countByAnswerAndVoteType(reloaded, Vote.VoteType.UPVOTE);
+        int storedDownvotes = voteRepository.countByAnswerAndVoteType(reloaded, Vote.VoteType.DOWNVOTE);
+
+        assertEquals(0, storedUpvotes);
+        assertEquals(0, reloaded.getUpvoteCount());
+        assertEquals(storedDownvotes, reloaded.getDownvoteCount());
+        assertEquals(-storedDownvotes, reloaded.getScore());
+        assertEquals(STARTING_REPUTATION + storedDownvotes * ReputationService.ANSWER_DOWNVOTE,
+                userRepository.findById(author.getId()).orElseThrow().getReputation());
+    }
+
+    private Answer newAnswer(User author, String run) {
+        Question question = new Question();
+        question.setTitle("Concurrency test question " + run);
+        question.setBody("Body");
+        question.setUser(author);
+        question = questionRepository.save(question);
+
+        Answer answer = new Answer();
+        answer.setBody("Answer");
+        answer.setQuestion(question);
+        answer.setUser(author);
+        return answerRepository.save(answer);
+    }
+
+    private void drainBackgroundJobs() {
+        while (voteTallyFolder.fold() > 0) {
+            // drain every pending shard into the stored counters
+        }
+        while (reputationAggregator.aggregate() > 0) {
+            // apply every pending reputation ledger entry
+        }
+    }
+
+    private void vote(CountDownLatch start, Long answerId, User voter, String... votes) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        for (String vote : votes) {
+            voteService.voteOnAnswer(answerId, voter, vote);
+        }
+    }
+}